@@ -0,0 +1,34 @@
+
+package optefx.loader.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark with the GC profiler, writing the JSON results to the
+ * given file (results.json by default).
+ *
+ * @author Enrique Urra C.
+ */
+public final class BenchmarkRunner
+{
+    private BenchmarkRunner()
+    {
+    }
+    
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder().
+            include(BenchmarkRunner.class.getPackage().getName() + ".*").
+            addProfiler(GCProfiler.class).
+            resultFormat(ResultFormatType.JSON).
+            result(args.length > 0 ? args[0] : "results.json").
+            build();
+        
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,71 @@
+
+package optefx.loader.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import optefx.loader.Module;
+import optefx.loader.ModuleLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loader registration and module construction.
+ *
+ * @author Enrique Urra C.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildBenchmarks
+{
+    private ModuleLoader smallLoader;
+    private ModuleLoader largeLoader;
+    
+    @Setup
+    public void setup()
+    {
+        smallLoader = new ModuleLoader().
+            loadAll(Fixtures.LOADERS).
+            setParameter(Fixtures.SIZE, 100);
+        
+        largeLoader = new ModuleLoader().
+            loadAll(SyntheticGraph.LOADERS);
+    }
+    
+    @Benchmark
+    public ModuleLoader loadScanned()
+    {
+        return new ModuleLoader().
+            useLoaderIndexes(false).
+            loadAll(SyntheticGraph.LOADERS);
+    }
+    
+    @Benchmark
+    public ModuleLoader loadIndexed()
+    {
+        return new ModuleLoader().
+            loadAll(SyntheticGraph.LOADERS);
+    }
+    
+    @Benchmark
+    public Module getModuleSmall()
+    {
+        return smallLoader.getModule();
+    }
+    
+    @Benchmark
+    public Module getModuleLarge()
+    {
+        return largeLoader.getModule();
+    }
+}
@@ -0,0 +1,64 @@
+
+package optefx.loader.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import optefx.loader.ModuleLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * First registration of the loaders in a fresh JVM, as done by short-lived
+ * batch runs. Every fork measures a single call, and the loader types are
+ * already loaded by the setup, so only the work of the registration is
+ * measured. Discovery also reads the loaders resource of the benchmarks and
+ * registers all the loader types it lists.
+ *
+ * @author Enrique Urra C.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmarks
+{
+    private Class[] loaders;
+    
+    @Setup
+    public void setup()
+    {
+        loaders = SyntheticGraph.LOADERS;
+    }
+    
+    @Benchmark
+    public ModuleLoader loadScanned()
+    {
+        return new ModuleLoader().
+            useLoaderIndexes(false).
+            loadAll(loaders);
+    }
+    
+    @Benchmark
+    public ModuleLoader loadIndexed()
+    {
+        return new ModuleLoader().
+            loadAll(loaders);
+    }
+    
+    @Benchmark
+    public ModuleLoader discover() throws IOException
+    {
+        return new ModuleLoader().
+            discover(ColdStartBenchmarks.class.getClassLoader());
+    }
+}
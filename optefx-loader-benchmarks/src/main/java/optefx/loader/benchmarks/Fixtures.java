@@ -0,0 +1,139 @@
+
+package optefx.loader.benchmarks;
+
+import optefx.loader.ComponentRegister;
+import optefx.loader.DoubleTrigger;
+import optefx.loader.LoadsComponent;
+import optefx.loader.Module;
+import optefx.loader.Parameter;
+import optefx.loader.ParameterRegister;
+import optefx.loader.Processable;
+import optefx.loader.Resolvable;
+import optefx.loader.Retriever;
+import optefx.loader.SelectableValue;
+import optefx.loader.Selector;
+import optefx.loader.Trigger;
+
+/**
+ * Small algorithm-like component graph used by the benchmarks.
+ *
+ * @author Enrique Urra C.
+ */
+public final class Fixtures
+{
+    public static final Parameter<Integer> SIZE = new Parameter<>("Fixtures.SIZE");
+    public static final Trigger<Double> RATE = new Trigger<>("Fixtures.RATE");
+    public static final DoubleTrigger PRIMITIVE_RATE = new DoubleTrigger("Fixtures.PRIMITIVE_RATE");
+    
+    public static final SelectableValue<Operator> SWAP = new SelectableValue<>(Portfolio.class, (p) -> p.selector);
+    public static final SelectableValue<Operator> SHIFT = new SelectableValue<>(Portfolio.class, (p) -> p.selector);
+    public static final SelectableValue<Operator> DENSE_SWAP = new SelectableValue<>(Portfolio.class, (p) -> p.denseSelector);
+    
+    public static final Class[] LOADERS = { Instance.class, Random.class, Portfolio.class, Solver.class };
+    
+    private Fixtures()
+    {
+    }
+    
+    public interface Operator
+    {
+        int apply(int value);
+    }
+    
+    public interface OperatorValue extends Resolvable<Operator>
+    {
+    }
+    
+    public static final class Instance
+    {
+        @LoadsComponent(Instance.class)
+        static void load(ComponentRegister cr, ParameterRegister pr)
+        {
+            cr.provide(new Instance(pr.getRequiredValue(SIZE)));
+        }
+        
+        private final int[] data;
+
+        public Instance(int size)
+        {
+            this.data = new int[size];
+        }
+    }
+    
+    public static final class Random
+    {
+        @LoadsComponent(Random.class)
+        static void load(ComponentRegister cr)
+        {
+            cr.provide(new Random());
+        }
+    }
+    
+    public static final class Portfolio
+    {
+        @LoadsComponent(Portfolio.class)
+        static void load(ComponentRegister cr)
+        {
+            cr.provide(new Portfolio());
+        }
+        
+        private final Selector<Resolvable, Operator> selector = new Selector<>();
+        private final Selector<Resolvable, Operator> denseSelector = new Selector<>(true);
+
+        public Portfolio()
+        {
+            selector.add(SWAP, (v) -> v + 1);
+            selector.add(SHIFT, (v) -> v << 1);
+            denseSelector.add(DENSE_SWAP, (v) -> v + 1);
+        }
+    }
+    
+    public static final class Solver
+    {
+        @LoadsComponent(Solver.class)
+        static void load(ComponentRegister cr, ParameterRegister pr, Instance instance, Random random, Portfolio portfolio)
+        {
+            Solver solver = cr.provide(new Solver(instance));
+            pr.addListener(RATE, (rate) -> solver.rate = rate);
+            pr.addDoubleListener(PRIMITIVE_RATE, (rate) -> solver.rate = rate);
+        }
+        
+        private final Instance instance;
+        private double rate;
+
+        public Solver(Instance instance)
+        {
+            this.instance = instance;
+        }
+        
+        public double getRate()
+        {
+            return rate;
+        }
+        
+        @Processable
+        private void check()
+        {
+            if(instance.data.length == 0)
+                throw new IllegalStateException("empty instance");
+        }
+    }
+    
+    public static Retriever retrieverOf(Module module)
+    {
+        return new Retriever()
+        {
+            @Override
+            public <T> T get(Class<T> requiredType)
+            {
+                return module.getInstance(requiredType);
+            }
+
+            @Override
+            public boolean contains(Class type)
+            {
+                return module.hasInstance(type);
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+
+package optefx.loader.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import optefx.loader.Module;
+import optefx.loader.ModuleLoader;
+import optefx.loader.Resolvable;
+import optefx.loader.Retriever;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Operations executed on a built module, usually from inside the algorithm.
+ *
+ * @author Enrique Urra C.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmarks
+{
+    private Module module;
+    private Retriever retriever;
+    private Fixtures.OperatorValue proxied;
+    private double rate;
+    
+    @Setup
+    public void setup()
+    {
+        module = new ModuleLoader().
+            loadAll(Fixtures.LOADERS).
+            setParameter(Fixtures.SIZE, 100).
+            getModule();
+        
+        retriever = Fixtures.retrieverOf(module);
+        proxied = Resolvable.proxy(Fixtures.OperatorValue.class, Fixtures.SWAP);
+    }
+    
+    @Benchmark
+    public Object getInstance()
+    {
+        return module.getInstance(Fixtures.Solver.class);
+    }
+    
+    @Benchmark
+    public boolean hasInstance()
+    {
+        return module.hasInstance(Fixtures.Portfolio.class);
+    }
+    
+    @Benchmark
+    public Module setTrigger()
+    {
+        rate += 0.5;
+        return module.setParameter(Fixtures.RATE, rate);
+    }
+    
+    @Benchmark
+    public Module setPrimitiveTrigger()
+    {
+        rate += 0.5;
+        return module.setParameter(Fixtures.PRIMITIVE_RATE, rate);
+    }
+    
+    @Benchmark
+    public Fixtures.Operator resolveSelectable()
+    {
+        return Fixtures.SWAP.resolve(retriever);
+    }
+    
+    @Benchmark
+    public Fixtures.Operator resolveDenseSelectable()
+    {
+        return Fixtures.DENSE_SWAP.resolve(retriever);
+    }
+    
+    @Benchmark
+    public Fixtures.Operator resolveCached()
+    {
+        return module.resolve(Fixtures.SWAP);
+    }
+    
+    @Benchmark
+    public Fixtures.Operator resolveProxy()
+    {
+        return proxied.resolve(retriever);
+    }
+}
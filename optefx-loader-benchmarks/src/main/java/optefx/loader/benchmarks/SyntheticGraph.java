@@ -0,0 +1,160 @@
+
+package optefx.loader.benchmarks;
+
+import optefx.loader.ComponentRegister;
+import optefx.loader.LoadsComponent;
+
+/**
+ * Synthetic loader graph with 64 nodes. Every node depends on the previous
+ * node and on the node at half its index, producing a deep, overlapping
+ * dependency graph.
+ *
+ * @author Enrique Urra C.
+ */
+public final class SyntheticGraph
+{
+    public static final Class[] LOADERS = {
+        N0.class, N1.class, N2.class, N3.class, N4.class, N5.class, N6.class, N7.class,
+        N8.class, N9.class, N10.class, N11.class, N12.class, N13.class, N14.class, N15.class,
+        N16.class, N17.class, N18.class, N19.class, N20.class, N21.class, N22.class, N23.class,
+        N24.class, N25.class, N26.class, N27.class, N28.class, N29.class, N30.class, N31.class,
+        N32.class, N33.class, N34.class, N35.class, N36.class, N37.class, N38.class, N39.class,
+        N40.class, N41.class, N42.class, N43.class, N44.class, N45.class, N46.class, N47.class,
+        N48.class, N49.class, N50.class, N51.class, N52.class, N53.class, N54.class, N55.class,
+        N56.class, N57.class, N58.class, N59.class, N60.class, N61.class, N62.class, N63.class
+    };
+
+    public static final Class LAST = N63.class;
+
+    private SyntheticGraph()
+    {
+    }
+
+    public static final class N0 { @LoadsComponent(N0.class) static void load(ComponentRegister cr) { cr.provide(new N0()); } }
+
+    public static final class N1 { @LoadsComponent(N1.class) static void load(ComponentRegister cr, N0 a) { cr.provide(new N1()); } }
+
+    public static final class N2 { @LoadsComponent(N2.class) static void load(ComponentRegister cr, N1 a, N0 b) { cr.provide(new N2()); } }
+
+    public static final class N3 { @LoadsComponent(N3.class) static void load(ComponentRegister cr, N2 a, N1 b) { cr.provide(new N3()); } }
+
+    public static final class N4 { @LoadsComponent(N4.class) static void load(ComponentRegister cr, N3 a, N2 b) { cr.provide(new N4()); } }
+
+    public static final class N5 { @LoadsComponent(N5.class) static void load(ComponentRegister cr, N4 a, N2 b) { cr.provide(new N5()); } }
+
+    public static final class N6 { @LoadsComponent(N6.class) static void load(ComponentRegister cr, N5 a, N3 b) { cr.provide(new N6()); } }
+
+    public static final class N7 { @LoadsComponent(N7.class) static void load(ComponentRegister cr, N6 a, N3 b) { cr.provide(new N7()); } }
+
+    public static final class N8 { @LoadsComponent(N8.class) static void load(ComponentRegister cr, N7 a, N4 b) { cr.provide(new N8()); } }
+
+    public static final class N9 { @LoadsComponent(N9.class) static void load(ComponentRegister cr, N8 a, N4 b) { cr.provide(new N9()); } }
+
+    public static final class N10 { @LoadsComponent(N10.class) static void load(ComponentRegister cr, N9 a, N5 b) { cr.provide(new N10()); } }
+
+    public static final class N11 { @LoadsComponent(N11.class) static void load(ComponentRegister cr, N10 a, N5 b) { cr.provide(new N11()); } }
+
+    public static final class N12 { @LoadsComponent(N12.class) static void load(ComponentRegister cr, N11 a, N6 b) { cr.provide(new N12()); } }
+
+    public static final class N13 { @LoadsComponent(N13.class) static void load(ComponentRegister cr, N12 a, N6 b) { cr.provide(new N13()); } }
+
+    public static final class N14 { @LoadsComponent(N14.class) static void load(ComponentRegister cr, N13 a, N7 b) { cr.provide(new N14()); } }
+
+    public static final class N15 { @LoadsComponent(N15.class) static void load(ComponentRegister cr, N14 a, N7 b) { cr.provide(new N15()); } }
+
+    public static final class N16 { @LoadsComponent(N16.class) static void load(ComponentRegister cr, N15 a, N8 b) { cr.provide(new N16()); } }
+
+    public static final class N17 { @LoadsComponent(N17.class) static void load(ComponentRegister cr, N16 a, N8 b) { cr.provide(new N17()); } }
+
+    public static final class N18 { @LoadsComponent(N18.class) static void load(ComponentRegister cr, N17 a, N9 b) { cr.provide(new N18()); } }
+
+    public static final class N19 { @LoadsComponent(N19.class) static void load(ComponentRegister cr, N18 a, N9 b) { cr.provide(new N19()); } }
+
+    public static final class N20 { @LoadsComponent(N20.class) static void load(ComponentRegister cr, N19 a, N10 b) { cr.provide(new N20()); } }
+
+    public static final class N21 { @LoadsComponent(N21.class) static void load(ComponentRegister cr, N20 a, N10 b) { cr.provide(new N21()); } }
+
+    public static final class N22 { @LoadsComponent(N22.class) static void load(ComponentRegister cr, N21 a, N11 b) { cr.provide(new N22()); } }
+
+    public static final class N23 { @LoadsComponent(N23.class) static void load(ComponentRegister cr, N22 a, N11 b) { cr.provide(new N23()); } }
+
+    public static final class N24 { @LoadsComponent(N24.class) static void load(ComponentRegister cr, N23 a, N12 b) { cr.provide(new N24()); } }
+
+    public static final class N25 { @LoadsComponent(N25.class) static void load(ComponentRegister cr, N24 a, N12 b) { cr.provide(new N25()); } }
+
+    public static final class N26 { @LoadsComponent(N26.class) static void load(ComponentRegister cr, N25 a, N13 b) { cr.provide(new N26()); } }
+
+    public static final class N27 { @LoadsComponent(N27.class) static void load(ComponentRegister cr, N26 a, N13 b) { cr.provide(new N27()); } }
+
+    public static final class N28 { @LoadsComponent(N28.class) static void load(ComponentRegister cr, N27 a, N14 b) { cr.provide(new N28()); } }
+
+    public static final class N29 { @LoadsComponent(N29.class) static void load(ComponentRegister cr, N28 a, N14 b) { cr.provide(new N29()); } }
+
+    public static final class N30 { @LoadsComponent(N30.class) static void load(ComponentRegister cr, N29 a, N15 b) { cr.provide(new N30()); } }
+
+    public static final class N31 { @LoadsComponent(N31.class) static void load(ComponentRegister cr, N30 a, N15 b) { cr.provide(new N31()); } }
+
+    public static final class N32 { @LoadsComponent(N32.class) static void load(ComponentRegister cr, N31 a, N16 b) { cr.provide(new N32()); } }
+
+    public static final class N33 { @LoadsComponent(N33.class) static void load(ComponentRegister cr, N32 a, N16 b) { cr.provide(new N33()); } }
+
+    public static final class N34 { @LoadsComponent(N34.class) static void load(ComponentRegister cr, N33 a, N17 b) { cr.provide(new N34()); } }
+
+    public static final class N35 { @LoadsComponent(N35.class) static void load(ComponentRegister cr, N34 a, N17 b) { cr.provide(new N35()); } }
+
+    public static final class N36 { @LoadsComponent(N36.class) static void load(ComponentRegister cr, N35 a, N18 b) { cr.provide(new N36()); } }
+
+    public static final class N37 { @LoadsComponent(N37.class) static void load(ComponentRegister cr, N36 a, N18 b) { cr.provide(new N37()); } }
+
+    public static final class N38 { @LoadsComponent(N38.class) static void load(ComponentRegister cr, N37 a, N19 b) { cr.provide(new N38()); } }
+
+    public static final class N39 { @LoadsComponent(N39.class) static void load(ComponentRegister cr, N38 a, N19 b) { cr.provide(new N39()); } }
+
+    public static final class N40 { @LoadsComponent(N40.class) static void load(ComponentRegister cr, N39 a, N20 b) { cr.provide(new N40()); } }
+
+    public static final class N41 { @LoadsComponent(N41.class) static void load(ComponentRegister cr, N40 a, N20 b) { cr.provide(new N41()); } }
+
+    public static final class N42 { @LoadsComponent(N42.class) static void load(ComponentRegister cr, N41 a, N21 b) { cr.provide(new N42()); } }
+
+    public static final class N43 { @LoadsComponent(N43.class) static void load(ComponentRegister cr, N42 a, N21 b) { cr.provide(new N43()); } }
+
+    public static final class N44 { @LoadsComponent(N44.class) static void load(ComponentRegister cr, N43 a, N22 b) { cr.provide(new N44()); } }
+
+    public static final class N45 { @LoadsComponent(N45.class) static void load(ComponentRegister cr, N44 a, N22 b) { cr.provide(new N45()); } }
+
+    public static final class N46 { @LoadsComponent(N46.class) static void load(ComponentRegister cr, N45 a, N23 b) { cr.provide(new N46()); } }
+
+    public static final class N47 { @LoadsComponent(N47.class) static void load(ComponentRegister cr, N46 a, N23 b) { cr.provide(new N47()); } }
+
+    public static final class N48 { @LoadsComponent(N48.class) static void load(ComponentRegister cr, N47 a, N24 b) { cr.provide(new N48()); } }
+
+    public static final class N49 { @LoadsComponent(N49.class) static void load(ComponentRegister cr, N48 a, N24 b) { cr.provide(new N49()); } }
+
+    public static final class N50 { @LoadsComponent(N50.class) static void load(ComponentRegister cr, N49 a, N25 b) { cr.provide(new N50()); } }
+
+    public static final class N51 { @LoadsComponent(N51.class) static void load(ComponentRegister cr, N50 a, N25 b) { cr.provide(new N51()); } }
+
+    public static final class N52 { @LoadsComponent(N52.class) static void load(ComponentRegister cr, N51 a, N26 b) { cr.provide(new N52()); } }
+
+    public static final class N53 { @LoadsComponent(N53.class) static void load(ComponentRegister cr, N52 a, N26 b) { cr.provide(new N53()); } }
+
+    public static final class N54 { @LoadsComponent(N54.class) static void load(ComponentRegister cr, N53 a, N27 b) { cr.provide(new N54()); } }
+
+    public static final class N55 { @LoadsComponent(N55.class) static void load(ComponentRegister cr, N54 a, N27 b) { cr.provide(new N55()); } }
+
+    public static final class N56 { @LoadsComponent(N56.class) static void load(ComponentRegister cr, N55 a, N28 b) { cr.provide(new N56()); } }
+
+    public static final class N57 { @LoadsComponent(N57.class) static void load(ComponentRegister cr, N56 a, N28 b) { cr.provide(new N57()); } }
+
+    public static final class N58 { @LoadsComponent(N58.class) static void load(ComponentRegister cr, N57 a, N29 b) { cr.provide(new N58()); } }
+
+    public static final class N59 { @LoadsComponent(N59.class) static void load(ComponentRegister cr, N58 a, N29 b) { cr.provide(new N59()); } }
+
+    public static final class N60 { @LoadsComponent(N60.class) static void load(ComponentRegister cr, N59 a, N30 b) { cr.provide(new N60()); } }
+
+    public static final class N61 { @LoadsComponent(N61.class) static void load(ComponentRegister cr, N60 a, N30 b) { cr.provide(new N61()); } }
+
+    public static final class N62 { @LoadsComponent(N62.class) static void load(ComponentRegister cr, N61 a, N31 b) { cr.provide(new N62()); } }
+
+    public static final class N63 { @LoadsComponent(N63.class) static void load(ComponentRegister cr, N62 a, N31 b) { cr.provide(new N63()); } }
+}
@@ -0,0 +1,541 @@
+
+package optefx.loader.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@code LoaderIndex} for every top-level type that declares
+ * {@code LoadsComponent} methods or nests types declaring them. The loaders
+ * of a type are left out of the index, and loaded by reflection instead, when
+ * the type or any type of its loaders is not accessible from a top-level
+ * class of its package. It also lists the loader types in the
+ * {@code META-INF/optefx/loaders} resource, and checks the loaders of the
+ * compilation for unmet dependencies and dependency cycles. These checks are
+ * reported as warnings, or as errors when the {@code optefx.loader.strict}
+ * option is set.
+ *
+ * @author Enrique Urra C.
+ */
+@SupportedAnnotationTypes(LoaderIndexProcessor.LOADS_COMPONENT)
+@SupportedOptions(LoaderIndexProcessor.STRICT_OPTION)
+public class LoaderIndexProcessor extends AbstractProcessor
+{
+    static final String LOADS_COMPONENT = "optefx.loader.LoadsComponent";
+    static final String STRICT_OPTION = "optefx.loader.strict";
+    static final String INDEX_SUFFIX = "_LoaderIndex";
+    static final int INDEX_VERSION = 1;
+    static final String LOADERS_RESOURCE = "META-INF/optefx/loaders";
+
+    private static final String LOADER_INDEX = "optefx.loader.LoaderIndex";
+    private static final String COMPONENT_REGISTER = "optefx.loader.ComponentRegister";
+    private static final String PARAMETER_REGISTER = "optefx.loader.ParameterRegister";
+
+    private static final class LoaderInfo
+    {
+        private final ExecutableElement method;
+        private final List<TypeMirror> referencedTypes = new ArrayList<>();
+        private final List<String> parameterTypes = new ArrayList<>();
+        private final Set<String> declaredTypes = new LinkedHashSet<>();
+        private final Set<String> providedTypes = new HashSet<>();
+        private final Set<String> dependencies = new LinkedHashSet<>();
+
+        public LoaderInfo(ExecutableElement method)
+        {
+            this.method = method;
+        }
+
+        @Override
+        public String toString()
+        {
+            return method.getEnclosingElement() + "." + method;
+        }
+    }
+
+    private final List<LoaderInfo> loaders = new ArrayList<>();
+    private final Set<String> loaderTypes = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(LOADS_COMPONENT);
+
+        if(annotation != null)
+        {
+            Map<TypeElement, Map<TypeElement, List<LoaderInfo>>> byTopLevel = new LinkedHashMap<>();
+
+            for(Element element : roundEnv.getElementsAnnotatedWith(annotation))
+            {
+                if(element.getKind() != ElementKind.METHOD)
+                    continue;
+
+                ExecutableElement method = (ExecutableElement)element;
+
+                if(!method.getModifiers().contains(Modifier.STATIC))
+                {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "The loader method '" + method + "' must be static", method);
+                    continue;
+                }
+
+                LoaderInfo info = describe(method, annotation);
+                loaders.add(info);
+
+                TypeElement owner = (TypeElement)method.getEnclosingElement();
+                TypeElement topLevel = getTopLevel(owner);
+
+                if(!byTopLevel.containsKey(topLevel))
+                    byTopLevel.put(topLevel, new LinkedHashMap<>());
+
+                Map<TypeElement, List<LoaderInfo>> byType = byTopLevel.get(topLevel);
+
+                if(!byType.containsKey(owner))
+                    byType.put(owner, new ArrayList<>());
+
+                byType.get(owner).add(info);
+                loaderTypes.add(processingEnv.getElementUtils().getBinaryName(owner).toString());
+            }
+
+            for(Map.Entry<TypeElement, Map<TypeElement, List<LoaderInfo>>> entry : byTopLevel.entrySet())
+                writeIndex(entry.getKey(), entry.getValue());
+        }
+
+        if(roundEnv.processingOver())
+        {
+            writeLoadersResource();
+            validate();
+        }
+
+        return false;
+    }
+
+    private LoaderInfo describe(ExecutableElement method, TypeElement annotation)
+    {
+        LoaderInfo info = new LoaderInfo(method);
+
+        for(AnnotationMirror mirror : method.getAnnotationMirrors())
+        {
+            if(!mirror.getAnnotationType().asElement().equals(annotation))
+                continue;
+
+            for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet())
+            {
+                if(!value.getKey().getSimpleName().contentEquals("value"))
+                    continue;
+
+                for(Object item : (List)value.getValue().getValue())
+                {
+                    TypeMirror declared = (TypeMirror)((AnnotationValue)item).getValue();
+                    info.referencedTypes.add(declared);
+                    info.declaredTypes.add(typeName(declared));
+                    fillHierarchy(declared, info.providedTypes);
+                }
+            }
+        }
+
+        for(VariableElement parameter : method.getParameters())
+        {
+            String parameterType = typeName(parameter.asType());
+            info.referencedTypes.add(parameter.asType());
+            info.parameterTypes.add(parameterType);
+
+            if(!parameterType.equals(COMPONENT_REGISTER) && !parameterType.equals(PARAMETER_REGISTER))
+                info.dependencies.add(parameterType);
+        }
+
+        return info;
+    }
+
+    private String typeName(TypeMirror type)
+    {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void fillHierarchy(TypeMirror type, Set<String> hierarchy)
+    {
+        String name = typeName(type);
+
+        if(name.equals(Object.class.getName()) || !hierarchy.add(name))
+            return;
+
+        for(TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type))
+            fillHierarchy(supertype, hierarchy);
+    }
+
+    /**
+     * Checks whether the given type can be referenced from a top-level class
+     * of the given package, as the generated index needs class literals and
+     * casts for every type of the loaders.
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement pkg)
+    {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+
+        if(erased.getKind() == TypeKind.ARRAY)
+            return isAccessible(((ArrayType)erased).getComponentType(), pkg);
+
+        if(erased.getKind() != TypeKind.DECLARED)
+            return true;
+
+        for(Element current = ((DeclaredType)erased).asElement(); current instanceof TypeElement; current = current.getEnclosingElement())
+        {
+            Set<Modifier> modifiers = current.getModifiers();
+
+            if(modifiers.contains(Modifier.PRIVATE))
+                return false;
+
+            if(!modifiers.contains(Modifier.PUBLIC) && !processingEnv.getElementUtils().getPackageOf(current).equals(pkg))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static TypeElement getTopLevel(TypeElement type)
+    {
+        TypeElement res = type;
+
+        for(Element current = type.getEnclosingElement(); !(current instanceof PackageElement); current = current.getEnclosingElement())
+        {
+            if(current instanceof TypeElement)
+                res = (TypeElement)current;
+        }
+
+        return res;
+    }
+
+    /**
+     * Checks whether the loaders of the given type can be described by the
+     * index of its top-level type, which needs class literals and casts for
+     * the type and for every type of its loaders.
+     */
+    private boolean isIndexable(TypeElement owner, List<LoaderInfo> infos)
+    {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(owner);
+
+        for(Element current = owner; current instanceof TypeElement; current = current.getEnclosingElement())
+        {
+            if(((TypeElement)current).getNestingKind() != NestingKind.TOP_LEVEL && ((TypeElement)current).getNestingKind() != NestingKind.MEMBER)
+                return false;
+        }
+
+        if(!isAccessible(owner.asType(), pkg))
+            return false;
+
+        for(LoaderInfo info : infos)
+        {
+            for(TypeMirror type : info.referencedTypes)
+            {
+                if(!isAccessible(type, pkg))
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void writeIndex(TypeElement topLevel, Map<TypeElement, List<LoaderInfo>> byType)
+    {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(topLevel);
+        String pkgName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String simpleName = topLevel.getSimpleName() + INDEX_SUFFIX;
+
+        StringBuilder sb = new StringBuilder();
+        StringBuilder cases = new StringBuilder();
+        int id = 0;
+
+        if(!pkgName.isEmpty())
+            sb.append("package ").append(pkgName).append(";\n\n");
+
+        sb.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        sb.append("public final class ").append(simpleName).append(" implements ").append(LOADER_INDEX).append("\n{\n");
+        sb.append("    @Override\n");
+        sb.append("    public boolean describe(Class loaderType, ").append(LOADER_INDEX).append(".Entries entries)\n    {\n");
+
+        for(Map.Entry<TypeElement, List<LoaderInfo>> entry : byType.entrySet())
+        {
+            if(!isIndexable(entry.getKey(), entry.getValue()))
+                continue;
+
+            String ownerName = typeName(entry.getKey().asType());
+            sb.append("        if(loaderType == ").append(ownerName).append(".class)\n        {\n");
+
+            for(LoaderInfo info : entry.getValue())
+            {
+                boolean direct = !info.method.getModifiers().contains(Modifier.PRIVATE);
+
+                sb.append("            entries.add(").append(direct ? id : -1).append(", \"").append(info.method.getSimpleName()).append("\",\n");
+                sb.append("                new Class[] {");
+                appendClassLiterals(sb, info.parameterTypes);
+                sb.append(" },\n");
+                sb.append("                new Class[] {");
+                appendClassLiterals(sb, info.declaredTypes);
+                sb.append(" });\n");
+
+                if(direct)
+                {
+                    cases.append("            case ").append(id++).append(": ").append(ownerName).append(".").append(info.method.getSimpleName()).append("(");
+
+                    for(int i = 0; i < info.parameterTypes.size(); i++)
+                        cases.append(i == 0 ? "" : ", ").append("(").append(info.parameterTypes.get(i)).append(")args[").append(i).append("]");
+
+                    cases.append("); break;\n");
+                }
+            }
+
+            sb.append("            return true;\n        }\n\n");
+        }
+
+        sb.append("        return false;\n    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public void invoke(int id, Object[] args) throws Throwable\n    {\n");
+        sb.append("        switch(id)\n        {\n");
+        sb.append(cases);
+        sb.append("            default: throw new IllegalArgumentException(\"Unknown loader \" + id);\n");
+        sb.append("        }\n    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public int getVersion()\n    {\n");
+        sb.append("        return ").append(INDEX_VERSION).append(";\n");
+        sb.append("    }\n}\n");
+
+        try(Writer writer = processingEnv.getFiler().createSourceFile(pkgName.isEmpty() ? simpleName : pkgName + "." + simpleName, topLevel).openWriter())
+        {
+            writer.write(sb.toString());
+        }
+        catch(IOException ex)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write the loader index '" + simpleName + "': " + ex.getLocalizedMessage(), topLevel);
+        }
+    }
+
+    /**
+     * Writes the loaders resource with the types found in this compilation,
+     * keeping the types listed by a previous compilation into the same output
+     * that still exist, since incremental builds only process changed sources.
+     */
+    private void writeLoadersResource()
+    {
+        if(loaderTypes.isEmpty())
+            return;
+
+        Set<String> allTypes = new LinkedHashSet<>();
+
+        try(BufferedReader reader = new BufferedReader(processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", LOADERS_RESOURCE).openReader(true)))
+        {
+            String line;
+
+            while((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+
+                if(!line.isEmpty() && processingEnv.getElementUtils().getTypeElement(line.replace('$', '.')) != null)
+                    allTypes.add(line);
+            }
+        }
+        catch(IOException ex)
+        {
+        }
+
+        allTypes.addAll(loaderTypes);
+
+        try(Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", LOADERS_RESOURCE).openWriter())
+        {
+            for(String type : allTypes)
+                writer.write(type + "\n");
+        }
+        catch(IOException ex)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write the loaders resource '" + LOADERS_RESOURCE + "': " + ex.getLocalizedMessage());
+        }
+    }
+
+    private static void appendClassLiterals(StringBuilder sb, Iterable<String> types)
+    {
+        boolean first = true;
+
+        for(String type : types)
+        {
+            sb.append(first ? " " : ", ").append(type).append(".class");
+            first = false;
+        }
+    }
+
+    private void validate()
+    {
+        Diagnostic.Kind kind = Boolean.parseBoolean(processingEnv.getOptions().get(STRICT_OPTION)) ? Diagnostic.Kind.ERROR : Diagnostic.Kind.WARNING;
+        Map<String, List<LoaderInfo>> providers = new HashMap<>();
+
+        for(LoaderInfo info : loaders)
+        {
+            for(String type : info.providedTypes)
+            {
+                if(!providers.containsKey(type))
+                    providers.put(type, new ArrayList<>());
+
+                providers.get(type).add(info);
+            }
+        }
+
+        Map<LoaderInfo, List<LoaderInfo>> edges = new HashMap<>();
+
+        for(LoaderInfo info : loaders)
+        {
+            List<LoaderInfo> childs = new ArrayList<>();
+
+            for(String dependency : info.dependencies)
+            {
+                List<LoaderInfo> depProviders = providers.get(dependency);
+
+                if(depProviders == null)
+                {
+                    processingEnv.getMessager().printMessage(kind, "The requested dependency (" + dependency + ") by the loader '" + info + "' is not provided by any loader of this compilation", info.method);
+                    continue;
+                }
+
+                for(LoaderInfo provider : depProviders)
+                {
+                    if(provider != info || !info.declaredTypes.contains(dependency))
+                        childs.add(provider);
+                }
+            }
+
+            edges.put(info, childs);
+        }
+
+        reportCycles(edges, kind);
+    }
+
+    /**
+     * Reports the strongly connected components of the dependency graph with
+     * more than one loader or a loader depending on itself, with an iterative
+     * Tarjan traversal so deep chains of loaders do not overflow the stack.
+     */
+    private void reportCycles(Map<LoaderInfo, List<LoaderInfo>> edges, Diagnostic.Kind kind)
+    {
+        int count = loaders.size();
+        Map<LoaderInfo, Integer> positions = new HashMap<>();
+
+        for(int i = 0; i < count; i++)
+            positions.put(loaders.get(i), i);
+
+        int[][] childs = new int[count][];
+
+        for(int i = 0; i < count; i++)
+        {
+            List<LoaderInfo> infoChilds = edges.get(loaders.get(i));
+            childs[i] = new int[infoChilds.size()];
+
+            for(int j = 0; j < childs[i].length; j++)
+                childs[i][j] = positions.get(infoChilds.get(j));
+        }
+
+        int[] indexes = new int[count];
+        int[] lowLinks = new int[count];
+        int[] nextEdges = new int[count];
+        boolean[] onStack = new boolean[count];
+        int[] stack = new int[count];
+        int[] callStack = new int[count];
+        int stackSize = 0;
+        int nextIndex = 1;
+
+        for(int root = 0; root < count; root++)
+        {
+            if(indexes[root] != 0)
+                continue;
+
+            int depth = 0;
+            callStack[depth++] = root;
+            indexes[root] = lowLinks[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while(depth > 0)
+            {
+                int current = callStack[depth - 1];
+
+                if(nextEdges[current] < childs[current].length)
+                {
+                    int child = childs[current][nextEdges[current]++];
+
+                    if(indexes[child] == 0)
+                    {
+                        callStack[depth++] = child;
+                        indexes[child] = lowLinks[child] = nextIndex++;
+                        stack[stackSize++] = child;
+                        onStack[child] = true;
+                    }
+                    else if(onStack[child])
+                    {
+                        lowLinks[current] = Math.min(lowLinks[current], indexes[child]);
+                    }
+
+                    continue;
+                }
+
+                depth--;
+
+                if(depth > 0)
+                {
+                    int caller = callStack[depth - 1];
+                    lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[current]);
+                }
+
+                if(lowLinks[current] != indexes[current])
+                    continue;
+
+                List<LoaderInfo> component = new ArrayList<>();
+                int member;
+
+                do
+                {
+                    member = stack[--stackSize];
+                    onStack[member] = false;
+                    component.add(loaders.get(member));
+                }
+                while(member != current);
+
+                Collections.reverse(component);
+                LoaderInfo info = loaders.get(current);
+
+                if(component.size() > 1 || edges.get(info).contains(info))
+                    processingEnv.getMessager().printMessage(kind, "Cyclic loader dependency between: " + component, info.method);
+            }
+        }
+    }
+}
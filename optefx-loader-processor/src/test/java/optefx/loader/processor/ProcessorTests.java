@@ -0,0 +1,194 @@
+
+package optefx.loader.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+public class ProcessorTests
+{
+    private static class Source extends SimpleJavaFileObject
+    {
+        private final String code;
+
+        public Source(String name, String code)
+        {
+            super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors)
+        {
+            return code;
+        }
+    }
+    
+    private static final Source[] API = new Source[] {
+        new Source("optefx.loader.LoadsComponent", "package optefx.loader; import java.lang.annotation.*; @Retention(RetentionPolicy.RUNTIME) public @interface LoadsComponent { Class[] value() default {}; }"),
+        new Source("optefx.loader.ComponentRegister", "package optefx.loader; public interface ComponentRegister { <T> T provide(T implementor); }"),
+        new Source("optefx.loader.LoaderIndex", "package optefx.loader; public interface LoaderIndex { interface Entries { void add(int id, String methodName, Class[] parameterTypes, Class[] provided); } boolean describe(Class loaderType, Entries entries); void invoke(int id, Object[] args) throws Throwable; int getVersion(); }")
+    };
+    
+    private File output;
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+    
+    @Before
+    public void prev() throws IOException
+    {
+        output = Files.createTempDirectory("processor-tests").toFile();
+        diagnostics = new DiagnosticCollector<>();
+    }
+    
+    private boolean compile(String code, String... options)
+    {
+        return compileSource("sample.Loaders", code, options);
+    }
+    
+    private boolean compileSource(String name, String code, String... options)
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> sources = new ArrayList<>(Arrays.asList(API));
+        sources.add(new Source(name, code));
+        
+        List<String> finalOptions = new ArrayList<>(Arrays.asList("-d", output.getPath(), "-s", output.getPath()));
+        finalOptions.addAll(Arrays.asList(options));
+        
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, finalOptions, null, sources);
+        task.setProcessors(Collections.singletonList(new LoaderIndexProcessor()));
+        return task.call();
+    }
+    
+    private boolean reported(Diagnostic.Kind kind, String text)
+    {
+        for(Diagnostic diagnostic : diagnostics.getDiagnostics())
+        {
+            if(diagnostic.getKind() == kind && diagnostic.getMessage(null).contains(text))
+                return true;
+        }
+        
+        return false;
+    }
+    
+    private String index(String topLevel) throws IOException
+    {
+        return new String(Files.readAllBytes(new File(output, "sample/" + topLevel + LoaderIndexProcessor.INDEX_SUFFIX + ".java").toPath()), StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void generatedIndex() throws IOException
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " public static class A { @LoadsComponent(A.class) static void load(ComponentRegister cr) { cr.provide(new A()); } }"
+            + " public static class B { @LoadsComponent(B.class) private static void load(ComponentRegister cr, A a) { cr.provide(new B()); } } }");
+        
+        assertTrue("Compiled", res);
+        assertTrue("Index of the top-level type", new File(output, "sample/Loaders_LoaderIndex.class").exists());
+        assertFalse("No index of the nested types", new File(output, "sample/Loaders$A_LoaderIndex.class").exists());
+        
+        String index = index("Loaders");
+        assertTrue("Direct invocation of A", index.contains("entries.add(0, \"load\""));
+        assertTrue("Reflective invocation of B", index.contains("entries.add(-1, \"load\""));
+        assertEquals("Loaders resource", Arrays.asList("sample.Loaders$A", "sample.Loaders$B"), Files.readAllLines(new File(output, LoaderIndexProcessor.LOADERS_RESOURCE).toPath()));
+        assertFalse("No warnings", reported(Diagnostic.Kind.WARNING, "sample"));
+    }
+    
+    @Test
+    public void incrementalResource() throws IOException
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " public static class A { @LoadsComponent(A.class) static void load(ComponentRegister cr) { cr.provide(new A()); } } }");
+        
+        assertTrue("Compiled", res);
+        
+        Path resource = new File(output, LoaderIndexProcessor.LOADERS_RESOURCE).toPath();
+        Files.write(resource, Arrays.asList("sample.Loaders$A", "sample.Removed"));
+        
+        res = compileSource("sample.Others", "package sample; import optefx.loader.*; public class Others {"
+            + " public static class C { @LoadsComponent(C.class) static void load(ComponentRegister cr) { cr.provide(new C()); } } }", "-cp", output.getPath());
+        
+        assertTrue("Compiled again", res);
+        assertEquals("Merged resource", Arrays.asList("sample.Loaders$A", "sample.Others$C"), Files.readAllLines(resource));
+    }
+    
+    @Test
+    public void nestedIndexNames()
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " public static class A { @LoadsComponent(A.class) static void load(ComponentRegister cr) { cr.provide(new A()); } } }"
+            + " class Loaders_A { @LoadsComponent(Loaders_A.class) static void load(ComponentRegister cr) { cr.provide(new Loaders_A()); } }");
+        
+        assertTrue("Compiled", res);
+        assertTrue("Index of the outer type", new File(output, "sample/Loaders_LoaderIndex.class").exists());
+        assertTrue("Index of the other top-level type", new File(output, "sample/Loaders_A_LoaderIndex.class").exists());
+    }
+    
+    @Test
+    public void inaccessibleTypes() throws IOException
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " private static class Hidden { }"
+            + " public static class A { @LoadsComponent(A.class) static void load(ComponentRegister cr, Hidden h) { cr.provide(new A()); } }"
+            + " public static class B { @LoadsComponent(B.class) static void load(ComponentRegister cr) { cr.provide(new B()); } }"
+            + " @LoadsComponent(Hidden.class) static void load(ComponentRegister cr) { cr.provide(new Hidden()); } }");
+        
+        assertTrue("Compiled", res);
+        
+        String index = index("Loaders");
+        assertFalse("A not indexed", index.contains("loaderType == sample.Loaders.A.class"));
+        assertFalse("Outer type not indexed", index.contains("loaderType == sample.Loaders.class"));
+        assertTrue("B indexed", index.contains("loaderType == sample.Loaders.B.class"));
+    }
+    
+    @Test
+    public void unmetDependency()
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " @LoadsComponent(Loaders.class) static void load(ComponentRegister cr, Runnable r) { cr.provide(new Loaders()); } }");
+        
+        assertTrue("Compiled", res);
+        assertTrue("Unmet warning", reported(Diagnostic.Kind.WARNING, "(java.lang.Runnable)"));
+    }
+    
+    @Test
+    public void strictCycle()
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " public static class A { @LoadsComponent(A.class) static void load(ComponentRegister cr, B b) { cr.provide(new A()); } }"
+            + " public static class B { @LoadsComponent(B.class) static void load(ComponentRegister cr, A a) { cr.provide(new B()); } } }",
+            "-Aoptefx.loader.strict=true");
+        
+        assertFalse("Not compiled", res);
+        assertTrue("Cycle error", reported(Diagnostic.Kind.ERROR, "Cyclic loader dependency"));
+    }
+    
+    @Test
+    public void nonStaticLoader()
+    {
+        boolean res = compile("package sample; import optefx.loader.*; public class Loaders {"
+            + " @LoadsComponent(Loaders.class) void load(ComponentRegister cr) { cr.provide(this); } }");
+        
+        assertFalse("Not compiled", res);
+        assertTrue("Static error", reported(Diagnostic.Kind.ERROR, "must be static"));
+    }
+}
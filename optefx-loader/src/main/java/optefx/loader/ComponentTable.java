@@ -0,0 +1,100 @@
+
+package optefx.loader;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only component registry used once a module is finished. Types are
+ * looked up by identity in an open-addressing table; single implementations
+ * are stored directly and ambiguous entries are resolved at construction.
+ *
+ * @author Enrique Urra C.
+ */
+final class ComponentTable
+{
+    private static final class Ambiguous
+    {
+        private final Object first;
+        private final Object second;
+
+        public Ambiguous(Object first, Object second)
+        {
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    private static int indexFor(Class type, int mask)
+    {
+        int hash = System.identityHashCode(type);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private final Class[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    public ComponentTable(Map<Class, List> components)
+    {
+        int capacity = 2;
+
+        while(capacity < components.size() * 2)
+            capacity <<= 1;
+
+        keys = new Class[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+
+        for(Map.Entry<Class, List> entry : components.entrySet())
+        {
+            List list = entry.getValue();
+            int pos = indexFor(entry.getKey(), mask);
+
+            while(keys[pos] != null)
+                pos = (pos + 1) & mask;
+
+            keys[pos] = entry.getKey();
+            values[pos] = list.size() == 1 ? list.get(0) : new Ambiguous(list.get(0), list.get(1));
+        }
+    }
+
+    private int find(Class type)
+    {
+        int pos = indexFor(type, mask);
+        Class key;
+
+        while((key = keys[pos]) != null)
+        {
+            if(key == type)
+                return pos;
+
+            pos = (pos + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    public boolean contains(Class type)
+    {
+        return find(type) >= 0;
+    }
+
+    public Object get(Class type) throws ModuleException
+    {
+        int pos = find(type);
+
+        if(pos < 0)
+            throw new MissingComponentException(type);
+
+        Object value = values[pos];
+
+        if(value instanceof Ambiguous)
+        {
+            Ambiguous ambiguous = (Ambiguous)value;
+            throw new AmbiguousImplementationException(type, ambiguous.first, ambiguous.second);
+        }
+
+        return value;
+    }
+}
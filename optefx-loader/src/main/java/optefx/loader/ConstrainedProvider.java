@@ -0,0 +1,85 @@
+
+package optefx.loader;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+class ConstrainedProvider implements ComponentRegister
+{
+    private final LoaderNode loaderEntity;
+    private final ModuleState state;
+    private final Class[] toProvide;
+    private final StepRecord record;
+    private final Set<Class> actuallyProvided = new HashSet<>();
+
+    public ConstrainedProvider(LoaderNode loaderEntity,
+                               ModuleState state,
+                               Class[] toProvide,
+                               StepRecord record)
+    {
+        this.loaderEntity = loaderEntity;
+        this.state = state;
+        this.toProvide = toProvide;
+        this.record = record;
+    }
+
+    private void checkProvideRequest(Class provided) throws ModuleLoadException
+    {
+        for(Class type : toProvide)
+        {
+            if(type.equals(provided))
+                return;
+        }
+
+        throw new NonDeclaredProvidingException(provided);
+    }
+
+    @Override
+    public <T> T provide(T implementor, Class<? super T>... providedTypes) throws ModuleLoadException
+    {
+        Objects.requireNonNull(implementor, "null implementor");
+
+        for(int i = 0; i < providedTypes.length;i ++)
+            provideInState(providedTypes[i], implementor);
+
+        return implementor;
+    }
+
+    @Override
+    public <T> T provide(T implementor) throws ModuleLoadException
+    {
+        return provideInState((Class<? super T>)implementor.getClass(), implementor);
+    }
+
+    private <T> T provideInState(Class<? super T> type, T implementor) throws ModuleLoadException
+    {
+        Objects.requireNonNull(implementor, "null implementor");
+        Objects.requireNonNull(type, "null type");
+
+        checkProvideRequest(type);
+        T res = state.addComponent(type, implementor, record);
+        record.addComponent(type, implementor);
+
+        LoadListener listener = state.getListener();
+
+        if(listener != null)
+            listener.componentProvided(loaderEntity.getLoader(), type, implementor);
+
+        actuallyProvided.add(type);
+        return res;
+    }
+
+    public void validateProvided() throws ModuleLoadException
+    {
+        for(Class type : toProvide)
+        {
+            if(!actuallyProvided.contains(type))
+                throw new MissingProvidingException(type, loaderEntity.getLoader());
+        }
+    }
+}
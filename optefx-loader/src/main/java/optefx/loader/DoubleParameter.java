@@ -0,0 +1,20 @@
+
+package optefx.loader;
+
+/**
+ * Parameter holding a double value, which can be read unboxed through
+ * {@link ParameterRegister#getDouble(DoubleParameter)}.
+ *
+ * @author Enrique Urra C.
+ */
+public class DoubleParameter extends Parameter<Double>
+{
+    public DoubleParameter()
+    {
+    }
+
+    public DoubleParameter(String name)
+    {
+        super(name);
+    }
+}
@@ -0,0 +1,34 @@
+
+package optefx.loader;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Trigger for double values. Listeners registered through
+ * {@link ParameterRegister#addDoubleListener} receive the values set through
+ * {@link Module#setParameter(DoubleTrigger, double)} without boxing, unless the
+ * trigger is asynchronous.
+ *
+ * @author Enrique Urra C.
+ */
+public class DoubleTrigger extends Trigger<Double>
+{
+    public DoubleTrigger()
+    {
+    }
+
+    public DoubleTrigger(String name)
+    {
+        super(name);
+    }
+
+    public DoubleTrigger(Executor executor)
+    {
+        super(executor);
+    }
+
+    public DoubleTrigger(String name, Executor executor)
+    {
+        super(name, executor);
+    }
+}
@@ -0,0 +1,55 @@
+
+package optefx.loader;
+
+/**
+ * Size of the sealed loader graph of a {@link ModuleLoader}. The edges are the
+ * pairs of a loader and a provider of one of its dependencies.
+ *
+ * @author Enrique Urra C.
+ */
+public final class GraphStats
+{
+    private final int nodeCount;
+    private final int typeCount;
+    private final int edgeCount;
+    private final long estimatedBytes;
+
+    GraphStats(int nodeCount, int typeCount, int edgeCount, long estimatedBytes)
+    {
+        this.nodeCount = nodeCount;
+        this.typeCount = typeCount;
+        this.edgeCount = edgeCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    public int getTypeCount()
+    {
+        return typeCount;
+    }
+
+    public int getEdgeCount()
+    {
+        return edgeCount;
+    }
+
+    /**
+     * Gets the approximate size in bytes of the graph: its adjacency arrays and
+     * the hash table that maps the types to their ids. The loaders and types
+     * themselves are not included.
+     */
+    public long getEstimatedBytes()
+    {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return nodeCount + " loaders, " + typeCount + " types, " + edgeCount + " edges, " + estimatedBytes + " bytes";
+    }
+}
@@ -0,0 +1,156 @@
+
+package optefx.loader;
+
+import java.util.Arrays;
+
+/**
+ * Immutable table of values indexed by the dense ids of parameters and
+ * triggers. Since these ids are issued globally, a table only
+ * uses an array indexed by id while it is not much larger than the number of
+ * values it holds; otherwise it keeps the ids sorted and finds them by binary
+ * search. Updates return a new instance.
+ *
+ * @author Enrique Urra C.
+ */
+final class IdTable
+{
+    public static final IdTable EMPTY = new IdTable(null, new Object[0]);
+
+    private static final int DENSE_SLACK = 32;
+
+    private final int[] ids;
+    private final Object[] values;
+
+    private IdTable(int[] ids, Object[] values)
+    {
+        this.ids = ids;
+        this.values = values;
+    }
+
+    /**
+     * Builds a table with the first {@code length} given ids and values, which
+     * must not contain repeated ids. Null values are skipped.
+     */
+    public static IdTable of(int[] ids, Object[] values, int length)
+    {
+        int count = 0;
+        int max = -1;
+
+        for(int i = 0; i < length; i++)
+        {
+            if(values[i] != null)
+            {
+                count++;
+                max = Math.max(max, ids[i]);
+            }
+        }
+
+        if(count == 0)
+            return EMPTY;
+
+        if(max < 2 * count + DENSE_SLACK)
+        {
+            Object[] dense = new Object[max + 1];
+
+            for(int i = 0; i < length; i++)
+            {
+                if(values[i] != null)
+                    dense[ids[i]] = values[i];
+            }
+
+            return new IdTable(null, dense);
+        }
+
+        long[] entries = new long[count];
+        int pos = 0;
+
+        for(int i = 0; i < length; i++)
+        {
+            if(values[i] != null)
+                entries[pos++] = ((long)ids[i] << 32) | i;
+        }
+
+        Arrays.sort(entries);
+        int[] sortedIds = new int[count];
+        Object[] sortedValues = new Object[count];
+
+        for(int i = 0; i < count; i++)
+        {
+            sortedIds[i] = (int)(entries[i] >>> 32);
+            sortedValues[i] = values[(int)entries[i]];
+        }
+
+        return new IdTable(sortedIds, sortedValues);
+    }
+
+    public Object get(int id)
+    {
+        if(ids == null)
+            return id < values.length ? values[id] : null;
+
+        int pos = Arrays.binarySearch(ids, id);
+        return pos < 0 ? null : values[pos];
+    }
+
+    /**
+     * Gets a copy of this table with the given value set. A null value removes
+     * the id.
+     */
+    public IdTable with(int id, Object value)
+    {
+        return with(new int[] { id }, new Object[] { value }, 1);
+    }
+
+    /**
+     * Gets a copy of this table with the first {@code length} given values set,
+     * the later ones taking precedence. Null values remove their ids.
+     */
+    public IdTable with(int[] newIds, Object[] newValues, int length)
+    {
+        int[] allIds = new int[values.length + length];
+        Object[] allValues = new Object[values.length + length];
+        int pos = 0;
+
+        for(int i = 0; i < values.length; i++)
+        {
+            int id = ids == null ? i : ids[i];
+
+            if(values[i] != null && !contains(newIds, 0, length, id))
+            {
+                allIds[pos] = id;
+                allValues[pos++] = values[i];
+            }
+        }
+
+        for(int i = 0; i < length; i++)
+        {
+            if(!contains(newIds, i + 1, length, newIds[i]))
+            {
+                allIds[pos] = newIds[i];
+                allValues[pos++] = newValues[i];
+            }
+        }
+
+        return of(allIds, allValues, pos);
+    }
+
+    private static boolean contains(int[] ids, int from, int to, int id)
+    {
+        for(int i = from; i < to; i++)
+        {
+            if(ids[i] == id)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the number of slots used by this table, that is, the length of its
+     * arrays.
+     */
+    public int capacity()
+    {
+        return values.length;
+    }
+}
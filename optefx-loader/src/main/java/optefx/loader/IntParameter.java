@@ -0,0 +1,20 @@
+
+package optefx.loader;
+
+/**
+ * Parameter holding a int value, which can be read unboxed through
+ * {@link ParameterRegister#getInt(IntParameter)}.
+ *
+ * @author Enrique Urra C.
+ */
+public class IntParameter extends Parameter<Integer>
+{
+    public IntParameter()
+    {
+    }
+
+    public IntParameter(String name)
+    {
+        super(name);
+    }
+}
@@ -0,0 +1,34 @@
+
+package optefx.loader;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Trigger for int values. Listeners registered through
+ * {@link ParameterRegister#addIntListener} receive the values set through
+ * {@link Module#setParameter(IntTrigger, int)} without boxing, unless the
+ * trigger is asynchronous.
+ *
+ * @author Enrique Urra C.
+ */
+public class IntTrigger extends Trigger<Integer>
+{
+    public IntTrigger()
+    {
+    }
+
+    public IntTrigger(String name)
+    {
+        super(name);
+    }
+
+    public IntTrigger(Executor executor)
+    {
+        super(executor);
+    }
+
+    public IntTrigger(String name, Executor executor)
+    {
+        super(name, executor);
+    }
+}
@@ -0,0 +1,73 @@
+
+package optefx.loader;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Defines how loader and processor methods are bound and invoked.
+ *
+ * @author Enrique Urra C.
+ */
+public enum InvocationStrategy
+{
+    REFLECTION
+    {
+        @Override
+        Invoker bind(Method method) throws ModuleLoadException
+        {
+            return (target, args) -> {
+                try
+                {
+                    method.invoke(target, args);
+                }
+                catch(InvocationTargetException ex)
+                {
+                    throw ex.getCause();
+                }
+            };
+        }
+    },
+
+    METHOD_HANDLES
+    {
+        private final MethodType invokerType = MethodType.methodType(void.class, Object.class, Object[].class);
+
+        @Override
+        Invoker bind(Method method) throws ModuleLoadException
+        {
+            MethodHandle handle;
+
+            try
+            {
+                handle = MethodHandles.lookup().unreflect(method);
+            }
+            catch(IllegalAccessException ex)
+            {
+                throw new ModuleLoadException("Cannot bind the method '" + method + "': " + ex.getLocalizedMessage(), ex);
+            }
+
+            handle = handle.asSpreader(Object[].class, method.getParameterCount());
+
+            if(Modifier.isStatic(method.getModifiers()))
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+
+            MethodHandle finalHandle = handle.asType(invokerType);
+            return (target, args) -> {
+                finalHandle.invokeExact(target, args);
+            };
+        }
+    };
+
+    @FunctionalInterface
+    interface Invoker
+    {
+        void invoke(Object target, Object[] args) throws Throwable;
+    }
+
+    abstract Invoker bind(Method method) throws ModuleLoadException;
+}
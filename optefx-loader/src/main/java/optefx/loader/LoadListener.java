@@ -0,0 +1,47 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+
+/**
+ * Receives the events of the construction of a module. Times are measured in
+ * nanoseconds, and only when at least one listener is registered. When a
+ * module is built in parallel, the events are notified from the threads of the
+ * executor. All the methods do nothing by default.
+ *
+ * @author Enrique Urra C.
+ */
+public interface LoadListener
+{
+    /**
+     * Notified before executing a loader. The requested type is the dependency
+     * that triggered the loader, or null if it was a starting point.
+     */
+    default void loaderStarted(Method loader, Class requested)
+    {
+    }
+
+    default void loaderFinished(Method loader, Class requested, long nanos)
+    {
+    }
+
+    default void loaderFailed(Method loader, Class requested, Throwable error)
+    {
+    }
+
+    default void componentProvided(Method loader, Class type, Object instance)
+    {
+    }
+
+    default void processorsExecuted(Object component, long nanos)
+    {
+    }
+
+    default void boundHandlersExecuted(Resolvable value, Object resolved, long nanos)
+    {
+    }
+
+    default void postProcessorExecuted(PostProcessor pp, long nanos)
+    {
+    }
+}
@@ -0,0 +1,859 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Immutable execution plan for a set of loaders. The dependency graph is
+ * traversed once, and the resulting loader order is replayed for every built
+ * module. Each step also keeps the steps it depends on, so independent loaders
+ * can be executed in parallel, and lazy modules can execute only the steps
+ * needed to provide a requested type.
+ *
+ * @author Enrique Urra C.
+ */
+final class LoadPlan
+{
+    private static final byte ARG_COMPONENT = 0;
+    private static final byte ARG_COMPONENT_REGISTER = 1;
+    private static final byte ARG_PARAMETER_REGISTER = 2;
+    private static final byte ARG_PARENT_COMPONENT = 3;
+
+    private static final class Step
+    {
+        private final LoaderNode node;
+        private final Class requested;
+        private final InvocationStrategy.Invoker invoker;
+        private final Class[] argTypes;
+        private final byte[] argKinds;
+        private final Class[] toProvide;
+        private final boolean usesRegister;
+        private final int[] dependencies;
+
+        public Step(LoaderNode node, Class requested, InvocationStrategy strategy, Class[] argTypes, byte[] argKinds, int[] dependencies) throws ModuleLoadException
+        {
+            this.node = node;
+            this.requested = requested;
+            this.invoker = node.getInvoker(strategy);
+            this.argTypes = argTypes;
+            this.argKinds = argKinds;
+            this.dependencies = dependencies;
+
+            List<Class> finalToProvide = new ArrayList<>(Arrays.asList(node.getDeclaredTypes()));
+            boolean finalUsesRegister = false;
+
+            for(int i = 0; i < argTypes.length; i++)
+            {
+                finalToProvide.remove(argTypes[i]);
+
+                if(argKinds[i] == ARG_COMPONENT_REGISTER)
+                    finalUsesRegister = true;
+            }
+
+            this.toProvide = finalToProvide.toArray(new Class[0]);
+            this.usesRegister = finalUsesRegister;
+        }
+
+        public void execute(ModuleState state, int index) throws ModuleLoadException
+        {
+            LoadListener listener = state.getListener();
+
+            if(listener == null)
+            {
+                run(state, index);
+                return;
+            }
+
+            Method loader = node.getLoader();
+            listener.loaderStarted(loader, requested);
+            long start = System.nanoTime();
+
+            try
+            {
+                run(state, index);
+            }
+            catch(RuntimeException | Error ex)
+            {
+                listener.loaderFailed(loader, requested, ex);
+                throw ex;
+            }
+
+            listener.loaderFinished(loader, requested, System.nanoTime() - start);
+        }
+
+        private void run(ModuleState state, int index) throws ModuleLoadException
+        {
+            StepRecord record = new StepRecord();
+            Object[] finalArgs = new Object[argTypes.length];
+            ConstrainedProvider cp = usesRegister ? new ConstrainedProvider(node, state, toProvide, record) : null;
+            ParameterRegister pr = null;
+
+            for(int i = 0; i < finalArgs.length; i++)
+            {
+                switch(argKinds[i])
+                {
+                    case ARG_COMPONENT_REGISTER: finalArgs[i] = cp; break;
+                    case ARG_PARAMETER_REGISTER: finalArgs[i] = pr == null ? pr = record.register(state) : pr; break;
+                    case ARG_PARENT_COMPONENT:
+                        if(!state.hasComponent(argTypes[i]))
+                            throw new UnmetDependencyException(argTypes[i], node.getLoader());
+
+                        finalArgs[i] = state.get(argTypes[i]);
+                        break;
+                    default: finalArgs[i] = state.get(argTypes[i]);
+                }
+            }
+
+            invoke(finalArgs);
+
+            if(cp != null)
+                cp.validateProvided();
+
+            state.setRecord(index, record);
+            state.addToLoadLog(index);
+        }
+
+        public boolean isSatisfiedBy(ModuleState parent, Set<LoaderNode> parentLoaders)
+        {
+            if(parentLoaders.contains(node))
+                return true;
+
+            Class[] declaredTypes = node.getDeclaredTypes();
+
+            if(declaredTypes.length == 0)
+                return false;
+
+            for(Class type : declaredTypes)
+            {
+                if(!parent.hasComponent(type))
+                    return false;
+            }
+
+            return true;
+        }
+
+        private void invoke(Object[] args) throws ModuleLoadException
+        {
+            try
+            {
+                invoker.invoke(null, args);
+            }
+            catch(ModuleLoadException ex)
+            {
+                throw ex;
+            }
+            catch(Throwable ex)
+            {
+                throw new ModuleLoadException("Cannot execute the loader '" + node + "': " + ex.getLocalizedMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Pending visit of a loader during the compilation. The frame first
+     * resolves the arguments of the loader, visiting their providers, and
+     * then visits the other providers of its declared types.
+     */
+    private static final class Frame
+    {
+        private final int node;
+        private final Class requested;
+        private final Class[] requiredTypes;
+        private final byte[] argKinds;
+        private int[] dependencies = new int[4];
+        private int dependencyCount;
+        private int arg;
+        private int providerType = LoaderGraph.NO_TYPE;
+        private int provider;
+        private int visited = -1;
+        private boolean finished;
+        private int declared;
+        private int follower;
+
+        public Frame(LoaderGraph graph, int node, Class requested)
+        {
+            this.node = node;
+            this.requested = requested;
+            this.requiredTypes = graph.getNode(node).getParameterTypes();
+            this.argKinds = new byte[requiredTypes.length];
+        }
+
+        public void addDependency(int step)
+        {
+            for(int i = 0; i < dependencyCount; i++)
+            {
+                if(dependencies[i] == step)
+                    return;
+            }
+
+            if(dependencyCount == dependencies.length)
+                dependencies = Arrays.copyOf(dependencies, dependencyCount * 2);
+
+            dependencies[dependencyCount++] = step;
+        }
+
+        public int[] getDependencies()
+        {
+            int[] res = Arrays.copyOf(dependencies, dependencyCount);
+            Arrays.sort(res);
+
+            return res;
+        }
+    }
+
+    /**
+     * Traverses the loader graph depth-first with an explicit stack of
+     * frames, so the depth of the graph is not limited by the thread stack.
+     */
+    private static final class Compiler
+    {
+        private final LoaderGraph graph;
+        private final InvocationStrategy strategy;
+        private final boolean deferUnmet;
+        private final boolean[] activeLoaders;
+        private final boolean[] loadedTypes;
+        private final int[] stepIndexes;
+        private final List<Step> steps = new ArrayList<>();
+        private final List<Frame> stack = new ArrayList<>();
+
+        public Compiler(LoaderGraph graph, InvocationStrategy strategy, boolean deferUnmet)
+        {
+            this.graph = graph;
+            this.strategy = strategy;
+            this.deferUnmet = deferUnmet;
+            this.activeLoaders = new boolean[graph.getNodeCount()];
+            this.loadedTypes = new boolean[graph.getTypeCount()];
+            this.stepIndexes = new int[graph.getNodeCount()];
+
+            Arrays.fill(stepIndexes, -1);
+        }
+
+        public void visit(int toLoad, Class requested) throws ModuleLoadException
+        {
+            try
+            {
+                push(toLoad, requested);
+
+                while(!stack.isEmpty())
+                    advance(stack.get(stack.size() - 1));
+            }
+            catch(CyclicDependencyException ex)
+            {
+                for(int i = stack.size() - 1; i >= 0; i--)
+                {
+                    Frame frame = stack.get(i);
+
+                    if(!frame.finished)
+                        ex.addToStack("'" + frame.requested + "' @ '" + graph.getNode(frame.node) + "'");
+                }
+
+                throw ex;
+            }
+            finally
+            {
+                for(Frame frame : stack)
+                    activeLoaders[frame.node] = false;
+
+                stack.clear();
+            }
+        }
+
+        private void push(int toLoad, Class requested) throws ModuleLoadException
+        {
+            if(stepIndexes[toLoad] >= 0)
+                return;
+
+            if(activeLoaders[toLoad])
+                throw new CyclicDependencyException("Cyclic loader dependency (" + requested + ") required at '" + graph.getNode(toLoad) + "'");
+
+            activeLoaders[toLoad] = true;
+            stack.add(new Frame(graph, toLoad, requested));
+        }
+
+        private void advance(Frame frame) throws ModuleLoadException
+        {
+            if(frame.finished)
+            {
+                follow(frame);
+                return;
+            }
+
+            if(frame.visited >= 0)
+            {
+                frame.addDependency(stepIndexes[frame.visited]);
+                frame.visited = -1;
+            }
+
+            if(frame.providerType != LoaderGraph.NO_TYPE)
+            {
+                if(frame.provider < graph.getProviderCount(frame.providerType))
+                {
+                    frame.visited = graph.getProvider(frame.providerType, frame.provider++);
+                    push(frame.visited, frame.requiredTypes[frame.arg]);
+                    return;
+                }
+
+                frame.argKinds[frame.arg++] = ARG_COMPONENT;
+                frame.providerType = LoaderGraph.NO_TYPE;
+            }
+
+            LoaderNode toLoad = graph.getNode(frame.node);
+
+            for(; frame.arg < frame.requiredTypes.length; frame.arg++)
+            {
+                Class requiredType = frame.requiredTypes[frame.arg];
+                int typeId = graph.getArgType(frame.node, frame.arg);
+
+                if(typeId == LoaderGraph.NO_TYPE)
+                {
+                    frame.argKinds[frame.arg] = requiredType.equals(ComponentRegister.class) ? ARG_COMPONENT_REGISTER : ARG_PARAMETER_REGISTER;
+                }
+                else if(toLoad.declares(requiredType) && loadedTypes[typeId])
+                {
+                    for(int i = 0; i < graph.getProviderCount(typeId); i++)
+                    {
+                        int provider = graph.getProvider(typeId, i);
+
+                        if(stepIndexes[provider] >= 0)
+                            frame.addDependency(stepIndexes[provider]);
+                    }
+
+                    frame.argKinds[frame.arg] = ARG_COMPONENT;
+                }
+                else if(graph.getProviderCount(typeId) == 0)
+                {
+                    if(!deferUnmet)
+                        throw new UnmetDependencyException(requiredType, toLoad.getLoader());
+
+                    frame.argKinds[frame.arg] = ARG_PARENT_COMPONENT;
+                }
+                else
+                {
+                    frame.providerType = typeId;
+                    frame.provider = 0;
+                    return;
+                }
+            }
+
+            stepIndexes[frame.node] = steps.size();
+            steps.add(new Step(toLoad, frame.requested, strategy, frame.requiredTypes, frame.argKinds, frame.getDependencies()));
+            activeLoaders[frame.node] = false;
+
+            for(Class type : toLoad.getProvidedTypes())
+                loadedTypes[graph.getTypeId(type)] = true;
+
+            frame.finished = true;
+        }
+
+        /**
+         * Gets the steps providing each type, indexed by the type id, in plan
+         * order.
+         */
+        public int[][] getProviderSteps()
+        {
+            int[][] res = new int[graph.getTypeCount()][];
+
+            for(int type = 0; type < res.length; type++)
+            {
+                int[] providers = new int[graph.getProviderCount(type)];
+                int count = 0;
+
+                for(int i = 0; i < providers.length; i++)
+                {
+                    int step = stepIndexes[graph.getProvider(type, i)];
+
+                    if(step >= 0)
+                        providers[count++] = step;
+                }
+
+                res[type] = Arrays.copyOf(providers, count);
+                Arrays.sort(res[type]);
+            }
+
+            return res;
+        }
+
+        private void follow(Frame frame) throws ModuleLoadException
+        {
+            for(; frame.declared < graph.getDeclaredCount(frame.node); frame.declared++, frame.follower = 0)
+            {
+                int type = graph.getDeclaredType(frame.node, frame.declared);
+
+                if(frame.follower < graph.getProviderCount(type))
+                {
+                    push(graph.getProvider(type, frame.follower++), graph.getType(type));
+                    return;
+                }
+            }
+
+            stack.remove(stack.size() - 1);
+        }
+    }
+
+    public static LoadPlan compile(LoaderGraph graph,
+                                   Collection<PostProcessor> postProcessors,
+                                   Collection<LoadListener> listeners,
+                                   InvocationStrategy strategy,
+                                   boolean deferUnmet) throws ModuleLoadException
+    {
+        Compiler compiler = new Compiler(graph, strategy, deferUnmet);
+
+        for(int node = 0; node < graph.getNodeCount(); node++)
+        {
+            if(graph.isStartPoint(node))
+                compiler.visit(node, null);
+        }
+
+        for(int type = 0; type < graph.getTypeCount(); type++)
+        {
+            for(int i = 0; i < graph.getRequesterCount(type); i++)
+                compiler.visit(graph.getRequester(type, i), null);
+        }
+
+        LoadListener listener;
+
+        if(listeners.isEmpty())
+            listener = null;
+        else if(listeners.size() == 1)
+            listener = listeners.iterator().next();
+        else
+            listener = new MulticastListener(listeners.toArray(new LoadListener[0]));
+
+        return new LoadPlan(graph, compiler.steps.toArray(new Step[0]), compiler.getProviderSteps(), postProcessors.toArray(new PostProcessor[0]), listener, strategy);
+    }
+
+    private static final class MulticastListener implements LoadListener
+    {
+        private final LoadListener[] listeners;
+
+        public MulticastListener(LoadListener[] listeners)
+        {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void loaderStarted(Method loader, Class requested)
+        {
+            for(LoadListener listener : listeners)
+                listener.loaderStarted(loader, requested);
+        }
+
+        @Override
+        public void loaderFinished(Method loader, Class requested, long nanos)
+        {
+            for(LoadListener listener : listeners)
+                listener.loaderFinished(loader, requested, nanos);
+        }
+
+        @Override
+        public void loaderFailed(Method loader, Class requested, Throwable error)
+        {
+            for(LoadListener listener : listeners)
+                listener.loaderFailed(loader, requested, error);
+        }
+
+        @Override
+        public void componentProvided(Method loader, Class type, Object instance)
+        {
+            for(LoadListener listener : listeners)
+                listener.componentProvided(loader, type, instance);
+        }
+
+        @Override
+        public void processorsExecuted(Object component, long nanos)
+        {
+            for(LoadListener listener : listeners)
+                listener.processorsExecuted(component, nanos);
+        }
+
+        @Override
+        public void boundHandlersExecuted(Resolvable value, Object resolved, long nanos)
+        {
+            for(LoadListener listener : listeners)
+                listener.boundHandlersExecuted(value, resolved, nanos);
+        }
+
+        @Override
+        public void postProcessorExecuted(PostProcessor pp, long nanos)
+        {
+            for(LoadListener listener : listeners)
+                listener.postProcessorExecuted(pp, nanos);
+        }
+    }
+
+    private final class ParallelExecution
+    {
+        private final ModuleState state;
+        private final Executor executor;
+        private final AtomicIntegerArray pending = new AtomicIntegerArray(steps.length);
+        private final AtomicInteger remaining = new AtomicInteger(steps.length);
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        public ParallelExecution(ModuleState state, Executor executor)
+        {
+            this.state = state;
+            this.executor = executor;
+
+            for(int i = 0; i < steps.length; i++)
+                pending.set(i, steps[i].dependencies.length);
+        }
+
+        public void run() throws ModuleLoadException
+        {
+            if(steps.length == 0)
+                return;
+
+            for(int i = 0; i < steps.length; i++)
+            {
+                if(steps[i].dependencies.length == 0)
+                    schedule(i);
+            }
+
+            try
+            {
+                done.join();
+            }
+            catch(CompletionException ex)
+            {
+                Throwable cause = ex.getCause();
+
+                if(cause instanceof ModuleException)
+                    throw (ModuleException)cause;
+
+                if(cause instanceof Error)
+                    throw (Error)cause;
+
+                throw new ModuleLoadException("Cannot complete the parallel load: " + cause.getLocalizedMessage(), cause);
+            }
+        }
+
+        private void schedule(int stepIndex)
+        {
+            try
+            {
+                executor.execute(() -> runStep(stepIndex));
+            }
+            catch(RejectedExecutionException ex)
+            {
+                done.completeExceptionally(ex);
+            }
+        }
+
+        private void runStep(int stepIndex)
+        {
+            if(done.isDone())
+                return;
+
+            try
+            {
+                steps[stepIndex].execute(state, stepIndex);
+            }
+            catch(Throwable ex)
+            {
+                done.completeExceptionally(ex);
+                return;
+            }
+
+            int[] stepDependents = dependents[stepIndex];
+
+            for(int i = 0; i < stepDependents.length; i++)
+            {
+                if(pending.decrementAndGet(stepDependents[i]) == 0)
+                    schedule(stepDependents[i]);
+            }
+
+            if(remaining.decrementAndGet() == 0)
+                done.complete(null);
+        }
+    }
+
+    private final Step[] steps;
+    private final int[][] dependents;
+    private final LoaderGraph graph;
+    private final int[][] providerSteps;
+    private final PostProcessor[] postProcessors;
+    private final LoadListener listener;
+    private final InvocationStrategy strategy;
+
+    private LoadPlan(LoaderGraph graph, Step[] steps, int[][] providerSteps, PostProcessor[] postProcessors, LoadListener listener, InvocationStrategy strategy)
+    {
+        this.graph = graph;
+        this.steps = steps;
+        this.providerSteps = providerSteps;
+        this.postProcessors = postProcessors;
+        this.listener = listener;
+        this.strategy = strategy;
+        this.dependents = new int[steps.length][];
+        int[] counts = new int[steps.length];
+
+        for(Step step : steps)
+        {
+            for(int dependency : step.dependencies)
+                counts[dependency]++;
+        }
+
+        for(int i = 0; i < steps.length; i++)
+            dependents[i] = new int[counts[i]];
+
+        for(int i = 0; i < steps.length; i++)
+        {
+            for(int dependency : steps[i].dependencies)
+                dependents[dependency][--counts[dependency]] = i;
+        }
+    }
+
+    public int size()
+    {
+        return steps.length;
+    }
+
+    public InvocationStrategy getStrategy()
+    {
+        return strategy;
+    }
+
+    public LoadListener getListener()
+    {
+        return listener;
+    }
+
+    public LoaderNode getNode(int stepIndex)
+    {
+        return steps[stepIndex].node;
+    }
+
+    public int postProcessorCount()
+    {
+        return postProcessors.length;
+    }
+
+    private ModuleState complete(ModuleState state) throws ModuleLoadException
+    {
+        return complete(state, null, null, null, false);
+    }
+
+    /**
+     * Runs the post-processors and finishes the given state. When a previous
+     * state is given, the post-processors that did not read any of the changed
+     * parameters nor retrieved a type provided by a dirty step are not
+     * executed again, and only their listeners are shared. When
+     * {@code isolated} is set, the post-processors with listeners are always
+     * executed again.
+     */
+    private ModuleState complete(ModuleState state, ModuleState previous, Set<Parameter> changed, boolean[] dirty, boolean isolated) throws ModuleLoadException
+    {
+        for(int i = 0; i < postProcessors.length; i++)
+        {
+            StepRecord record = previous == null ? null : previous.getPostRecord(i);
+
+            if(record != null && !record.readsAny(changed) && !(isolated && record.hasListeners()) && !retrievesDirty(record, dirty))
+            {
+                record.replay(state);
+                state.setPostRecord(i, record);
+                continue;
+            }
+
+            PostProcessor pp = postProcessors[i];
+            record = new StepRecord();
+
+            if(listener == null)
+            {
+                pp.process(record.retriever(state), record.register(state));
+            }
+            else
+            {
+                long start = System.nanoTime();
+                pp.process(record.retriever(state), record.register(state));
+                listener.postProcessorExecuted(pp, System.nanoTime() - start);
+            }
+
+            state.setPostRecord(i, record);
+        }
+
+        state.finish();
+        return state;
+    }
+
+    public ModuleState build(ParameterValues parameterValues) throws ModuleLoadException
+    {
+        ModuleState state = new ModuleState(this, parameterValues, false, null);
+
+        for(int i = 0; i < steps.length; i++)
+            steps[i].execute(state, i);
+
+        return complete(state);
+    }
+
+    public ModuleState build(ParameterValues parameterValues, Executor executor) throws ModuleLoadException
+    {
+        ModuleState state = new ModuleState(this, parameterValues, false, null);
+        new ParallelExecution(state, executor).run();
+
+        return complete(state);
+    }
+
+    public ModuleState buildLazy(ParameterValues parameterValues) throws ModuleLoadException
+    {
+        return complete(new ModuleState(this, parameterValues, true, null));
+    }
+
+    /**
+     * Builds a module over a parent one. Steps whose loader was executed by the
+     * parent, or whose declared types are all available in the parent, are
+     * not executed.
+     */
+    public ModuleState buildChild(ModuleState parent, ParameterValues parameterValues) throws ModuleLoadException
+    {
+        ModuleState state = new ModuleState(this, parameterValues, false, parent);
+        Set<LoaderNode> parentLoaders = parent.getExecutedLoaders();
+
+        for(int i = 0; i < steps.length; i++)
+        {
+            if(!steps[i].isSatisfiedBy(parent, parentLoaders))
+                steps[i].execute(state, i);
+        }
+
+        return complete(state);
+    }
+
+    /**
+     * Executes the steps not yet executed in the given lazy state that are
+     * needed to provide the given type, in plan order.
+     */
+    public boolean ensure(ModuleState state, Class type) throws ModuleLoadException
+    {
+        int typeId = graph.getTypeId(type);
+
+        if(typeId == LoaderGraph.NO_TYPE)
+            return false;
+
+        int[] providers = providerSteps[typeId];
+
+        boolean[] needed = new boolean[steps.length];
+        int[] stack = new int[steps.length];
+        int top = 0;
+        int first = steps.length;
+
+        for(int provider : providers)
+        {
+            if(!needed[provider] && state.getRecord(provider) == null)
+            {
+                needed[provider] = true;
+                stack[top++] = provider;
+            }
+        }
+
+        while(top > 0)
+        {
+            int current = stack[--top];
+            first = Math.min(first, current);
+
+            for(int dependency : steps[current].dependencies)
+            {
+                if(!needed[dependency] && state.getRecord(dependency) == null)
+                {
+                    needed[dependency] = true;
+                    stack[top++] = dependency;
+                }
+            }
+        }
+
+        for(int i = first; i < steps.length; i++)
+        {
+            if(needed[i])
+                steps[i].execute(state, i);
+        }
+
+        return first < steps.length;
+    }
+
+    /**
+     * Rebuilds the given module with new parameter values, executing again only
+     * the dirty steps: those that read a changed parameter, that depend on a
+     * dirty step, or whose component processors or bound handlers retrieved a
+     * type provided by a dirty step. The remaining steps are replayed from the
+     * records of the previous state, and are logged as loaded as well. When
+     * {@code isolated} is set, the steps and post-processors that registered
+     * trigger listeners are dirty too, so the new state does not share them.
+     */
+    public ModuleState rebuild(ModuleState previous, ParameterValues parameterValues, Set<Parameter> changed, boolean isolated) throws ModuleLoadException
+    {
+        ModuleState state = new ModuleState(this, parameterValues, previous.isLazy(), previous.getParent());
+        StepRecord[] records = previous.getRecords();
+        boolean skipMissing = state.isLazy() || state.getParent() != null;
+        boolean[] dirty = new boolean[steps.length];
+        boolean updated = true;
+
+        while(updated)
+        {
+            updated = false;
+
+            for(int i = 0; i < steps.length; i++)
+            {
+                StepRecord record = records[i];
+
+                if(dirty[i] || (record == null && skipMissing))
+                    continue;
+
+                boolean isDirty = record == null || record.readsAny(changed) || (isolated && record.hasListeners()) || retrievesDirty(record, dirty);
+
+                for(int j = 0; !isDirty && j < steps[i].dependencies.length; j++)
+                    isDirty = dirty[steps[i].dependencies[j]];
+
+                if(isDirty)
+                {
+                    dirty[i] = true;
+                    updated = true;
+                }
+            }
+        }
+
+        for(int i = 0; i < steps.length; i++)
+        {
+            StepRecord record = records[i];
+
+            if(dirty[i])
+            {
+                steps[i].execute(state, i);
+            }
+            else if(record != null)
+            {
+                record.replay(state);
+                state.setRecord(i, record);
+                state.addToLoadLog(i);
+            }
+        }
+
+        return complete(state, previous, changed, dirty, isolated);
+    }
+
+    private boolean retrievesDirty(StepRecord record, boolean[] dirty)
+    {
+        for(Class type : record.getRetrieved())
+        {
+            int typeId = graph.getTypeId(type);
+
+            if(typeId == LoaderGraph.NO_TYPE)
+                continue;
+
+            for(int provider : providerSteps[typeId])
+            {
+                if(dirty[provider])
+                    return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,250 @@
+
+package optefx.loader;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sealed loader graph of a {@link ModuleLoader}, built once after the loaders
+ * are registered. Loaders and types are identified by dense int ids, and the
+ * relations between them are stored as compressed sparse rows: the entries of
+ * row {@code i} are in {@code values[offsets[i]]} to
+ * {@code values[offsets[i + 1] - 1]}. All rows keep the registration order of
+ * the loaders.
+ *
+ * @author Enrique Urra C.
+ */
+final class LoaderGraph
+{
+    /**
+     * Type id of the arguments that are not components, that is, the
+     * {@link ComponentRegister} and {@link ParameterRegister} arguments.
+     */
+    public static final int NO_TYPE = -1;
+
+    private final LoaderNode[] nodes;
+    private final Class[] types;
+    private final Map<Class, Integer> typeIds;
+    private final int[] argOffsets;
+    private final int[] argTypes;
+    private final int[] declaredOffsets;
+    private final int[] declaredTypes;
+    private final int[] providerOffsets;
+    private final int[] providers;
+    private final int[] requesterOffsets;
+    private final int[] requesters;
+    private final int edgeCount;
+
+    public LoaderGraph(List<LoaderNode> loaderNodes)
+    {
+        nodes = loaderNodes.toArray(new LoaderNode[0]);
+        typeIds = new HashMap<>();
+        argOffsets = new int[nodes.length + 1];
+        declaredOffsets = new int[nodes.length + 1];
+
+        for(int i = 0; i < nodes.length; i++)
+        {
+            for(Class type : nodes[i].getProvidedTypes())
+                idOf(type);
+
+            argOffsets[i + 1] = argOffsets[i] + nodes[i].getParameterTypes().length;
+            declaredOffsets[i + 1] = declaredOffsets[i] + nodes[i].getDeclaredTypes().length;
+        }
+
+        argTypes = new int[argOffsets[nodes.length]];
+        declaredTypes = new int[declaredOffsets[nodes.length]];
+
+        for(int i = 0; i < nodes.length; i++)
+        {
+            int pos = argOffsets[i];
+
+            for(Class type : nodes[i].getParameterTypes())
+                argTypes[pos++] = type.equals(ComponentRegister.class) || type.equals(ParameterRegister.class) ? NO_TYPE : idOf(type);
+
+            pos = declaredOffsets[i];
+
+            for(Class type : nodes[i].getDeclaredTypes())
+                declaredTypes[pos++] = idOf(type);
+        }
+
+        types = new Class[typeIds.size()];
+
+        for(Map.Entry<Class, Integer> entry : typeIds.entrySet())
+            types[entry.getValue()] = entry.getKey();
+
+        providerOffsets = new int[types.length + 1];
+        requesterOffsets = new int[types.length + 1];
+
+        for(LoaderNode node : nodes)
+        {
+            for(Class type : node.getProvidedTypes())
+                providerOffsets[typeIds.get(type) + 1]++;
+        }
+
+        for(int i = 0; i < nodes.length; i++)
+        {
+            for(int pos = argOffsets[i]; pos < argOffsets[i + 1]; pos++)
+            {
+                if(argTypes[pos] != NO_TYPE && !hasArgBefore(i, pos))
+                    requesterOffsets[argTypes[pos] + 1]++;
+            }
+        }
+
+        for(int i = 0; i < types.length; i++)
+        {
+            providerOffsets[i + 1] += providerOffsets[i];
+            requesterOffsets[i + 1] += requesterOffsets[i];
+        }
+
+        providers = new int[providerOffsets[types.length]];
+        requesters = new int[requesterOffsets[types.length]];
+        int[] providerFill = new int[types.length];
+        int[] requesterFill = new int[types.length];
+
+        for(int i = 0; i < nodes.length; i++)
+        {
+            for(Class type : nodes[i].getProvidedTypes())
+            {
+                int typeId = typeIds.get(type);
+                providers[providerOffsets[typeId] + providerFill[typeId]++] = i;
+            }
+
+            for(int pos = argOffsets[i]; pos < argOffsets[i + 1]; pos++)
+            {
+                int typeId = argTypes[pos];
+
+                if(typeId != NO_TYPE && !hasArgBefore(i, pos))
+                    requesters[requesterOffsets[typeId] + requesterFill[typeId]++] = i;
+            }
+        }
+
+        int edges = 0;
+
+        for(int typeId = 0; typeId < types.length; typeId++)
+            edges += getProviderCount(typeId) * (requesterOffsets[typeId + 1] - requesterOffsets[typeId]);
+
+        edgeCount = edges;
+    }
+
+    private int idOf(Class type)
+    {
+        Integer id = typeIds.get(type);
+
+        if(id == null)
+            typeIds.put(type, id = typeIds.size());
+
+        return id;
+    }
+
+    private boolean hasArgBefore(int node, int pos)
+    {
+        for(int i = argOffsets[node]; i < pos; i++)
+        {
+            if(argTypes[i] == argTypes[pos])
+                return true;
+        }
+
+        return false;
+    }
+
+    public int getNodeCount()
+    {
+        return nodes.length;
+    }
+
+    public LoaderNode getNode(int node)
+    {
+        return nodes[node];
+    }
+
+    public int getTypeCount()
+    {
+        return types.length;
+    }
+
+    public Class getType(int type)
+    {
+        return types[type];
+    }
+
+    /**
+     * Gets the id of the given type, or {@link #NO_TYPE} if no loader provides
+     * or requests it.
+     */
+    public int getTypeId(Class type)
+    {
+        Integer id = typeIds.get(type);
+        return id == null ? NO_TYPE : id;
+    }
+
+    /**
+     * Gets the type id of an argument of the given loader, or
+     * {@link #NO_TYPE} if the argument is a register.
+     */
+    public int getArgType(int node, int arg)
+    {
+        return argTypes[argOffsets[node] + arg];
+    }
+
+    public int getDeclaredCount(int node)
+    {
+        return declaredOffsets[node + 1] - declaredOffsets[node];
+    }
+
+    public int getDeclaredType(int node, int i)
+    {
+        return declaredTypes[declaredOffsets[node] + i];
+    }
+
+    public int getProviderCount(int type)
+    {
+        return providerOffsets[type + 1] - providerOffsets[type];
+    }
+
+    public int getProvider(int type, int i)
+    {
+        return providers[providerOffsets[type] + i];
+    }
+
+    /**
+     * Gets the number of loaders that request the given type at least once.
+     */
+    public int getRequesterCount(int type)
+    {
+        return requesterOffsets[type + 1] - requesterOffsets[type];
+    }
+
+    public int getRequester(int type, int i)
+    {
+        return requesters[requesterOffsets[type] + i];
+    }
+
+    public boolean isStartPoint(int node)
+    {
+        for(int pos = argOffsets[node]; pos < argOffsets[node + 1]; pos++)
+        {
+            if(argTypes[pos] != NO_TYPE)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the statistics of this graph. The size of the arrays is estimated
+     * with 16 bytes per array header and 4 bytes per reference, and the size
+     * of the type ids table with 48 bytes per entry, for the node and the boxed
+     * id, plus its bucket array.
+     */
+    public GraphStats getStats()
+    {
+        long ints = (long)argOffsets.length + argTypes.length + declaredOffsets.length + declaredTypes.length +
+            providerOffsets.length + providers.length + requesterOffsets.length + requesters.length;
+
+        long buckets = Integer.highestOneBit(Math.max(1, (int)(types.length / 0.75f)) * 2 - 1);
+        long table = 48 + 16 + 4 * Math.max(16, buckets) + 48L * types.length;
+
+        return new GraphStats(nodes.length, types.length, edgeCount, 10 * 16 + 4 * (ints + nodes.length + types.length) + table);
+    }
+}
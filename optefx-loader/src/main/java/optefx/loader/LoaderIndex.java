@@ -0,0 +1,61 @@
+
+package optefx.loader;
+
+/**
+ * Index of the {@link LoadsComponent} methods of a top-level type and its
+ * nested types, generated at build time by the optefx-loader-processor
+ * artifact. A type {@code pkg.Outer} and its nested types are indexed by the
+ * class {@code pkg.Outer_LoaderIndex}, so loading many nested loader types
+ * only loads one index class. The processor also lists the loader types of
+ * each compilation in the {@link #RESOURCE} resource, one binary name per
+ * line, which is read by {@link ModuleLoader#discover}.
+ * <p>
+ * Loaders visible from the index are called directly by {@link #invoke}, so
+ * their methods are neither scanned nor reflected. An index is only checked
+ * against its {@link #VERSION}, not against the current loaders of its types,
+ * as that would need the reflection it avoids: a loader whose signature
+ * changed after the index was generated fails to link when executed.
+ *
+ * @author Enrique Urra C.
+ */
+public interface LoaderIndex
+{
+    public static final String SUFFIX = "_LoaderIndex";
+    public static final String RESOURCE = "META-INF/optefx/loaders";
+    public static final int VERSION = 1;
+
+    @FunctionalInterface
+    public interface Entries
+    {
+        /**
+         * Adds a loader. The id of a loader called by {@link #invoke} is its
+         * position in the index, and it is negative for the loaders that must
+         * be invoked by reflection, such as the private ones.
+         */
+        void add(int id, String methodName, Class[] parameterTypes, Class[] provided);
+    }
+
+    public static String getIndexName(Class loaderType)
+    {
+        Class topLevel = loaderType;
+
+        while(topLevel.getDeclaringClass() != null)
+            topLevel = topLevel.getDeclaringClass();
+
+        return topLevel.getName() + SUFFIX;
+    }
+
+    /**
+     * Adds the loaders of the given type, returning false if the type is not
+     * indexed.
+     */
+    boolean describe(Class loaderType, Entries entries);
+
+    void invoke(int id, Object[] args) throws Throwable;
+
+    /**
+     * Gets the {@link #VERSION} of the processor that generated this index.
+     * Indexes of other versions are ignored.
+     */
+    int getVersion();
+}
@@ -0,0 +1,152 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A registered loader. Its declared and provided types are kept in small
+ * arrays without repetitions, as they are only iterated or linearly searched
+ * once the loader graph is sealed. Loaders registered from a
+ * {@link LoaderIndex} with a direct invocation are identified by their type,
+ * name and parameter types, and their method is only reflected when it is
+ * first requested, which is not needed to build modules.
+ *
+ * @author Enrique Urra C.
+ */
+class LoaderNode
+{
+    private static final Class[] NO_TYPES = new Class[0];
+
+    private final Class owner;
+    private final String name;
+    private final Class[] parameterTypes;
+    private final InvocationStrategy.Invoker invoker;
+    private final Class[] declaredTypes;
+    private final Class[] providedTypes;
+    private volatile Method loader;
+
+    public LoaderNode(Method loader, Class[] provided) throws ModuleLoadException
+    {
+        this(loader.getDeclaringClass(), loader.getName(), loader.getParameterTypes(), provided, null);
+        this.loader = loader;
+    }
+
+    public LoaderNode(Class owner, String name, Class[] parameterTypes, Class[] provided, InvocationStrategy.Invoker invoker) throws ModuleLoadException
+    {
+        this.owner = owner;
+        this.name = name;
+        this.parameterTypes = parameterTypes;
+        this.invoker = invoker;
+
+        Set<Class> finalDeclared = new LinkedHashSet<>();
+        Set<Class> finalProvided = new LinkedHashSet<>();
+
+        for(int i = 0; i < provided.length; i++)
+        {
+            finalDeclared.add(Objects.requireNonNull(provided[i], "null provided type at position " + i));
+            Collections.addAll(finalProvided, ModuleState.getHierarchy(provided[i]));
+        }
+
+        this.declaredTypes = finalDeclared.toArray(NO_TYPES);
+        this.providedTypes = finalProvided.toArray(NO_TYPES);
+    }
+
+    public Method getLoader()
+    {
+        Method res = loader;
+
+        if(res == null)
+        {
+            try
+            {
+                res = owner.getDeclaredMethod(name, parameterTypes);
+            }
+            catch(NoSuchMethodException ex)
+            {
+                throw new ModuleLoadException("The indexed loader '" + this + "' does not exist, its loader index must be generated again", ex);
+            }
+
+            loader = res;
+        }
+
+        return res;
+    }
+
+    /**
+     * Gets the parameter types of this loader. The returned array must not be
+     * modified.
+     */
+    public Class[] getParameterTypes()
+    {
+        return parameterTypes;
+    }
+
+    public InvocationStrategy.Invoker getInvoker(InvocationStrategy strategy) throws ModuleLoadException
+    {
+        return invoker != null ? invoker : strategy.bind(getLoader());
+    }
+
+    /**
+     * Gets the declared types of this loader. The returned array must not be
+     * modified.
+     */
+    public Class[] getDeclaredTypes()
+    {
+        return declaredTypes;
+    }
+
+    public boolean declares(Class type)
+    {
+        for(Class declared : declaredTypes)
+        {
+            if(declared.equals(type))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the declared types of this loader and all their supertypes. The
+     * returned array must not be modified.
+     */
+    public Class[] getProvidedTypes()
+    {
+        return providedTypes;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if(obj == this)
+            return true;
+
+        if(!(obj instanceof LoaderNode))
+            return false;
+
+        LoaderNode other = (LoaderNode)obj;
+        return owner.equals(other.owner) && name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * owner.hashCode() + name.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder(owner.getName()).append('.').append(name).append('(');
+
+        for(int i = 0; i < parameterTypes.length; i++)
+            sb.append(i == 0 ? "" : ",").append(parameterTypes[i].getTypeName());
+
+        return sb.append(')').toString();
+    }
+}
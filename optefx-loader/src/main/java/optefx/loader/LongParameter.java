@@ -0,0 +1,20 @@
+
+package optefx.loader;
+
+/**
+ * Parameter holding a long value, which can be read unboxed through
+ * {@link ParameterRegister#getLong(LongParameter)}.
+ *
+ * @author Enrique Urra C.
+ */
+public class LongParameter extends Parameter<Long>
+{
+    public LongParameter()
+    {
+    }
+
+    public LongParameter(String name)
+    {
+        super(name);
+    }
+}
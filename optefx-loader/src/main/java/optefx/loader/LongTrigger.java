@@ -0,0 +1,34 @@
+
+package optefx.loader;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Trigger for long values. Listeners registered through
+ * {@link ParameterRegister#addLongListener} receive the values set through
+ * {@link Module#setParameter(LongTrigger, long)} without boxing, unless the
+ * trigger is asynchronous.
+ *
+ * @author Enrique Urra C.
+ */
+public class LongTrigger extends Trigger<Long>
+{
+    public LongTrigger()
+    {
+    }
+
+    public LongTrigger(String name)
+    {
+        super(name);
+    }
+
+    public LongTrigger(Executor executor)
+    {
+        super(executor);
+    }
+
+    public LongTrigger(String name, Executor executor)
+    {
+        super(name, executor);
+    }
+}
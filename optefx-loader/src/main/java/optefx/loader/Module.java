@@ -0,0 +1,150 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A built set of components. Once returned by a {@link ModuleLoader}, a module
+ * can be shared between threads without external locking:
+ * <ul>
+ * <li>{@link #getInstance} and {@link #hasInstance} read an immutable
+ * component table published when the module is finished, without locking. In
+ * lazy modules, the first request of a type locks the module while its loaders
+ * are executed.</li>
+ * <li>{@link #setParameter} reads an immutable copy of the trigger listeners,
+ * which is replaced when a listener is added later. Listeners may then run
+ * concurrently, so they must be thread-safe themselves.</li>
+ * <li>{@link #fork} and the load log take a copy of the executed loaders
+ * under the module lock, as lazy modules add them on demand, and
+ * {@link #update} publishes a new state at once.</li>
+ * <li>{@link #resolve} reads immutable or concurrent caches, which are
+ * replaced when the cached values are invalidated.</li>
+ * </ul>
+ *
+ * @author Enrique Urra C.
+ */
+public final class Module
+{
+    private volatile ModuleState state;
+
+    Module(ModuleState state)
+    {
+        this.state = state;
+    }
+    
+    ModuleState getState()
+    {
+        return state;
+    }
+    
+    public <T> T getInstance(Class<T> compType) throws ModuleLoadException
+    {
+        return state.get(compType);
+    }
+    
+    public boolean hasInstance(Class compType)
+    {
+        return state.hasComponent(compType);
+    }
+    
+    public <T> Module setParameter(Trigger<T> param, T value) throws ModuleLoadException
+    {
+        state.setOnline(param, value);
+        return this;
+    }
+    
+    public Module setParameter(IntTrigger param, int value) throws ModuleLoadException
+    {
+        state.setOnline(param, value);
+        return this;
+    }
+    
+    public Module setParameter(LongTrigger param, long value) throws ModuleLoadException
+    {
+        state.setOnline(param, value);
+        return this;
+    }
+    
+    public Module setParameter(DoubleTrigger param, double value) throws ModuleLoadException
+    {
+        state.setOnline(param, value);
+        return this;
+    }
+    
+    /**
+     * Resolves the given value against the components of this module. The
+     * result is cached, so later resolutions of the same value are a lookup,
+     * or an array read for {@link SelectableValue} instances, until it is
+     * invalidated. Updating the module discards all the cached results.
+     */
+    public <T> T resolve(Resolvable<T> value) throws ModuleLoadException
+    {
+        return state.resolve(Objects.requireNonNull(value, "null value"));
+    }
+    
+    public Module invalidate(Resolvable value)
+    {
+        state.invalidate(Objects.requireNonNull(value, "null value"));
+        return this;
+    }
+    
+    public Module invalidateResolved()
+    {
+        state.invalidateResolved();
+        return this;
+    }
+    
+    /**
+     * Creates a module with the given parameter values overriding the ones of
+     * this module. The loaders that read an overridden parameter or registered
+     * a trigger listener, and the ones depending on them, are executed again
+     * for the fork. The components of the other loaders are shared with this
+     * module, so they must not be mutated through the fork.
+     */
+    public Module fork(Map<Parameter, Object> overrides) throws ModuleLoadException
+    {
+        return new Module(state.fork(overrides, true));
+    }
+    
+    /**
+     * Applies the given parameter values to this module. Only the loaders and
+     * post-processors that read a changed parameter, directly or through the
+     * components they depend on, are executed again; the other components are
+     * kept. The update is published at once, and concurrent readers see either
+     * the previous or the updated components.
+     */
+    public synchronized Module update(Map<Parameter, Object> values) throws ModuleLoadException
+    {
+        state = state.fork(values, false);
+        return this;
+    }
+    
+    public <T> Module update(Parameter<T> param, T value) throws ModuleLoadException
+    {
+        return update(Collections.singletonMap(param, value));
+    }
+    
+    /**
+     * Gets the loaders whose components are part of this module, in load
+     * order. After an update or in a fork, this includes the loaders whose
+     * results were kept from the previous module without executing them again.
+     */
+    public Method[] getLoadedLoaders()
+    {
+        return state.getLoadLog();
+    }
+    
+    public String getLoadLog()
+    {
+        Method[] loaders = state.getLoadLog();
+        StringBuilder sb = new StringBuilder();
+        
+        for(Method loader : loaders)
+            sb.append(loader).append("\n");
+        
+        return sb.toString();
+    }
+}
@@ -0,0 +1,412 @@
+
+package optefx.loader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+public final class ModuleLoader
+{
+    private static final LoaderIndex NO_INDEX = new LoaderIndex()
+    {
+        @Override
+        public boolean describe(Class loaderType, Entries entries)
+        {
+            return false;
+        }
+
+        @Override
+        public void invoke(int id, Object[] args)
+        {
+            throw new IllegalArgumentException("No indexed loaders");
+        }
+
+        @Override
+        public int getVersion()
+        {
+            return LoaderIndex.VERSION;
+        }
+    };
+    
+    /**
+     * Index of each loader type, which is shared with the other types of its
+     * top-level type.
+     */
+    private static final ClassValue<LoaderIndex> INDEXES = new ClassValue<LoaderIndex>()
+    {
+        @Override
+        protected LoaderIndex computeValue(Class<?> type)
+        {
+            Class declaring = type.getDeclaringClass();
+            
+            if(declaring != null)
+                return get(declaring);
+            
+            try
+            {
+                Class indexType = Class.forName(LoaderIndex.getIndexName(type), true, type.getClassLoader());
+                
+                if(LoaderIndex.class.isAssignableFrom(indexType))
+                {
+                    LoaderIndex index = (LoaderIndex)indexType.getDeclaredConstructor().newInstance();
+                    
+                    if(index.getVersion() == LoaderIndex.VERSION)
+                        return index;
+                }
+            }
+            catch(ReflectiveOperationException | LinkageError ex)
+            {
+            }
+            
+            return NO_INDEX;
+        }
+    };
+    
+    //private final List<LoaderNode> addedLoaders = new ArrayList<>();
+    private final Set<LoaderNode> addedLoaders = new HashSet<>();
+    private final List<LoaderNode> loaderNodes = new ArrayList<>();
+    private final List<PostProcessor> postProcessors = new ArrayList<>();
+    private final List<LoadListener> loadListeners = new ArrayList<>();
+    private volatile ParameterValues parameterValues = ParameterValues.EMPTY;
+    private InvocationStrategy invocationStrategy = InvocationStrategy.METHOD_HANDLES;
+    private boolean useIndexes = true;
+    private LoaderGraph graph;
+    private LoadPlan plan;
+    private LoadPlan childPlan;
+    
+    private void registerLoader(LoaderNode node)
+    {
+        if(!addedLoaders.add(node))
+            return;
+        
+        loaderNodes.add(node);
+        graph = null;
+        plan = null;
+        childPlan = null;
+    }
+    
+    public synchronized ModuleLoader addPostProcessors(PostProcessor... pps)
+    {
+        for(PostProcessor pp : pps)
+            postProcessors.add(Objects.requireNonNull(pp, "null post-processor"));
+        
+        plan = null;
+        childPlan = null;
+        return this;
+    }
+    
+    public synchronized ModuleLoader addLoadListeners(LoadListener... listeners)
+    {
+        for(LoadListener listener : listeners)
+            loadListeners.add(Objects.requireNonNull(listener, "null listener"));
+        
+        plan = null;
+        childPlan = null;
+        return this;
+    }
+    
+    public synchronized ModuleLoader setInvocationStrategy(InvocationStrategy strategy)
+    {
+        invocationStrategy = Objects.requireNonNull(strategy, "null strategy");
+        plan = null;
+        childPlan = null;
+        return this;
+    }
+    
+    public synchronized ModuleLoader useLoaderIndexes(boolean useIndexes)
+    {
+        this.useIndexes = useIndexes;
+        return this;
+    }
+    
+    public ModuleLoader loadAll(Class... loaderTypes) throws ModuleLoadException
+    {
+        for(Class loader : loaderTypes)
+            load(loader);
+        
+        return this;
+    }
+    
+    public synchronized ModuleLoader load(Class loaderType, String... methodNames) throws ModuleLoadException
+    {
+        Set<String> methodNamesSet = new HashSet<>(methodNames.length);
+        
+        for(int i = 0; i < methodNames.length; i++)
+            methodNamesSet.add(Objects.requireNonNull(methodNames[i], "null name at position " + i));
+        
+        Objects.requireNonNull(loaderType, "null loader type");
+        int found = useIndexes ? loadIndexed(loaderType, methodNamesSet) : -1;
+        
+        if(found < 0)
+            found = loadScanned(loaderType, methodNamesSet);
+        
+        if(found == 0)
+            throw new ModuleLoadException("No valid loader methods were found in type '" + loaderType + "' with the provided names");
+        
+        return this;
+    }
+    
+    private int loadIndexed(Class loaderType, Set<String> methodNamesSet) throws ModuleLoadException
+    {
+        LoaderIndex index = INDEXES.get(loaderType);
+        
+        if(index == NO_INDEX)
+            return -1;
+        
+        List<LoaderNode> nodes = new ArrayList<>();
+        boolean[] missing = new boolean[1];
+        
+        boolean indexed = index.describe(loaderType, (id, methodName, parameterTypes, providedTypes) -> {
+            if(!methodNamesSet.isEmpty() && !methodNamesSet.contains(methodName))
+                return;
+            
+            if(id >= 0)
+            {
+                nodes.add(new LoaderNode(loaderType, methodName, parameterTypes, providedTypes, (target, args) -> index.invoke(id, args)));
+                return;
+            }
+            
+            try
+            {
+                Method method = loaderType.getDeclaredMethod(methodName, parameterTypes);
+                makeAccessible(method);
+                nodes.add(new LoaderNode(method, providedTypes));
+            }
+            catch(NoSuchMethodException ex)
+            {
+                missing[0] = true;
+            }
+        });
+        
+        if(!indexed || missing[0])
+            return -1;
+        
+        for(LoaderNode node : nodes)
+            registerLoader(node);
+        
+        return nodes.size();
+    }
+    
+    private int loadScanned(Class loaderType, Set<String> methodNamesSet) throws ModuleLoadException
+    {
+        Method[] methods = loaderType.getDeclaredMethods();
+        int found = 0;
+
+        for(Method method : methods)
+        {
+            if(!methodNamesSet.isEmpty() && !methodNamesSet.contains(method.getName()))
+                continue;
+            
+            if(!method.isAnnotationPresent(LoadsComponent.class))
+                continue;
+            
+            if(!Modifier.isStatic(method.getModifiers()))
+                throw new ModuleLoadException("The loader method '" + method + "' must be static");
+
+            makeAccessible(method);
+            LoadsComponent info = method.getAnnotation(LoadsComponent.class);
+            registerLoader(new LoaderNode(method, info.value()));
+
+            found++;
+        }
+        
+        return found;
+    }
+    
+    /**
+     * Loads every type listed in the {@link LoaderIndex#RESOURCE} resources
+     * visible from the given class loader, usually one per jar compiled with
+     * the optefx-loader-processor artifact. The listed types are not
+     * initialized, and their methods are taken from their generated indexes.
+     */
+    public synchronized ModuleLoader discover(ClassLoader classLoader) throws IOException, ModuleLoadException
+    {
+        Objects.requireNonNull(classLoader, "null class loader");
+        Enumeration<URL> resources = classLoader.getResources(LoaderIndex.RESOURCE);
+        
+        while(resources.hasMoreElements())
+        {
+            URL resource = resources.nextElement();
+            
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)))
+            {
+                String line;
+                
+                while((line = reader.readLine()) != null)
+                {
+                    String typeName = line.trim();
+                    
+                    if(typeName.isEmpty() || typeName.startsWith("#"))
+                        continue;
+                    
+                    try
+                    {
+                        load(Class.forName(typeName, false, classLoader));
+                    }
+                    catch(ClassNotFoundException | LinkageError ex)
+                    {
+                        throw new ModuleLoadException("Cannot find the loader type '" + typeName + "' listed in '" + resource + "'", ex);
+                    }
+                }
+            }
+        }
+        
+        return this;
+    }
+    
+    private static void makeAccessible(Method method) throws ModuleLoadException
+    {
+        try
+        {
+            if(!method.isAccessible())
+                method.setAccessible(true);
+        }
+        catch(SecurityException ex)
+        {
+            throw new ModuleLoadException("Non accesible loader method: '" + method + "'", ex);
+        }
+    }
+    
+    public synchronized <T, K> ModuleLoader setParameter(Parameter<T> param, T value)
+    {
+        Objects.requireNonNull(param, "null parameter");
+        Objects.requireNonNull(value, "null value");
+        
+        parameterValues = parameterValues.with(param, value);
+        return this;
+    }
+    
+    public synchronized ModuleLoader clearParameter(Parameter param)
+    {
+        parameterValues = parameterValues.with(Objects.requireNonNull(param, "null parameter"), null);
+        return this;
+    }
+    
+    /**
+     * Validates the whole graph of the registered loaders without executing
+     * them, reporting all its cycles, unmet dependencies and ambiguous
+     * providers at once.
+     */
+    public synchronized ValidationReport validate()
+    {
+        return ValidationReport.validate(getGraph());
+    }
+    
+    /**
+     * Gets the size of the graph of the registered loaders, which is sealed
+     * into compact arrays when a module is first built after a registration.
+     */
+    public synchronized GraphStats graphStats()
+    {
+        return getGraph().getStats();
+    }
+    
+    private synchronized LoaderGraph getGraph()
+    {
+        if(graph == null)
+            graph = new LoaderGraph(loaderNodes);
+        
+        return graph;
+    }
+    
+    private synchronized LoadPlan getPlan() throws ModuleLoadException
+    {
+        if(plan == null)
+            plan = LoadPlan.compile(getGraph(), postProcessors, loadListeners, invocationStrategy, false);
+        
+        return plan;
+    }
+    
+    private synchronized LoadPlan getChildPlan() throws ModuleLoadException
+    {
+        if(childPlan == null)
+            childPlan = LoadPlan.compile(getGraph(), postProcessors, loadListeners, invocationStrategy, true);
+        
+        return childPlan;
+    }
+    
+    public Module getModule() throws ModuleLoadException
+    {
+        return new Module(getPlan().build(parameterValues));
+    }
+    
+    /**
+     * Gets a module whose loaders are executed on demand, when a component
+     * type provided by them is first requested. Loaders that do not provide
+     * any type are never executed by a lazy module.
+     */
+    public Module getLazyModule() throws ModuleLoadException
+    {
+        return new Module(getPlan().buildLazy(parameterValues));
+    }
+    
+    /**
+     * Gets a module whose dependencies can be satisfied by the components of
+     * the given parent module. The loaders whose components are already in the
+     * parent are not executed, and the lookups of the child fall through to
+     * the parent. Triggers set in the child are not propagated to the parent.
+     * The child is pinned to the components of the parent at this call, so
+     * its own components stay consistent with them: later updates of the
+     * parent are not seen by the child, which must be built again instead.
+     */
+    public Module getChildModule(Module parent) throws ModuleLoadException
+    {
+        Objects.requireNonNull(parent, "null parent");
+        return new Module(getChildPlan().buildChild(parent.getState(), parameterValues));
+    }
+    
+    public Module getModule(Executor executor) throws ModuleLoadException
+    {
+        Objects.requireNonNull(executor, "null executor");
+        return new Module(getPlan().build(parameterValues, executor));
+    }
+    
+    /**
+     * Builds a module for each of the given parameter sets, which override the
+     * parameters of this loader. The modules share the same plan and are built
+     * in parallel.
+     */
+    public List<Module> getModules(List<Map<Parameter, Object>> parameterSets) throws ModuleLoadException
+    {
+        Objects.requireNonNull(parameterSets, "null parameter sets");
+        return getModules(parameterSets.parallelStream()).collect(Collectors.toList());
+    }
+    
+    /**
+     * Lazily maps the given parameter sets into modules. The modules are built
+     * in parallel when the given stream is parallel. The plan and the
+     * parameters of this loader are taken when this method is called, so
+     * later changes to this loader do not affect the returned stream.
+     */
+    public Stream<Module> getModules(Stream<? extends Map<Parameter, Object>> parameterSets) throws ModuleLoadException
+    {
+        Objects.requireNonNull(parameterSets, "null parameter sets");
+        LoadPlan finalPlan = getPlan();
+        ParameterValues finalValues = parameterValues;
+        
+        return parameterSets.map((overrides) -> new Module(finalPlan.build(finalValues.withAll(Objects.requireNonNull(overrides, "null parameters")))));
+    }
+    
+    public <T> T getInstance(Class<T> componentType) throws ModuleLoadException
+    {
+        return getModule().getInstance(componentType);
+    }
+}
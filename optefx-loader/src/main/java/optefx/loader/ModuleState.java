@@ -0,0 +1,805 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+class ModuleState implements ParameterRegister, Retriever
+{
+    @FunctionalInterface
+    private interface ProcessHandler
+    {
+        void process(Retriever ret);
+    }
+    
+    /**
+     * Latest-value-wins dispatch of an asynchronous trigger. At most one
+     * dispatch task is scheduled at a time; values set meanwhile replace the
+     * pending one.
+     */
+    private final class AsyncDispatch implements Runnable
+    {
+        private final Trigger trigger;
+        private final AtomicReference pending = new AtomicReference();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        public AsyncDispatch(Trigger trigger)
+        {
+            this.trigger = trigger;
+        }
+        
+        public void offer(Object value) throws ModuleException
+        {
+            pending.set(value);
+            
+            if(!scheduled.compareAndSet(false, true))
+                return;
+            
+            try
+            {
+                trigger.getExecutor().execute(this);
+            }
+            catch(RejectedExecutionException ex)
+            {
+                scheduled.set(false);
+                throw new ModuleException("Cannot dispatch the trigger parameter '" + trigger + "': " + ex.getLocalizedMessage(), ex);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            do
+            {
+                try
+                {
+                    Object value = pending.getAndSet(null);
+                    
+                    if(value != null)
+                        dispatch((Object[])triggerHandlers.get(trigger.getId()), value);
+                }
+                finally
+                {
+                    scheduled.set(false);
+                }
+            }
+            while(pending.get() != null && scheduled.compareAndSet(false, true));
+        }
+    }
+    
+    private static final Object[][] NO_SELECTIONS = new Object[0][];
+    private static final Object[] NO_VALUES = new Object[0];
+    
+    private static final ClassValue<Class[]> HIERARCHIES = new ClassValue<Class[]>()
+    {
+        @Override
+        protected Class[] computeValue(Class<?> type)
+        {
+            return fillHierarchy(type, type, new LinkedHashSet<>()).toArray(new Class[0]);
+        }
+    };
+    
+    /**
+     * Gets the given type and all its supertypes, except Object. The returned
+     * array is cached and shared by every caller, so it must not be modified.
+     */
+    static Class[] getHierarchy(Class topOfHierarchy)
+    {
+        return HIERARCHIES.get(topOfHierarchy);
+    }
+    
+    public static Set<Class> fillHierarchy(Class original, Class current, Set<Class> hierarchy) throws AmbiguousImplementationException
+    {
+        hierarchy.add(current);
+        Class[] interfaces = current.getInterfaces();
+
+        for(int i = 0; i < interfaces.length; i++)
+            fillHierarchy(original, interfaces[i], hierarchy);
+
+        if(current.getSuperclass() != null && !current.getSuperclass().equals(Object.class))
+            fillHierarchy(original, current.getSuperclass(), hierarchy);
+
+        return hierarchy;
+    }
+    
+    private final Map<Class, List> components = new HashMap<>();
+    private final Set<ProcessHandler> processables = new HashSet<>();
+    private final Map<Trigger, List> parameterTriggers = new HashMap<>();
+    private volatile IdTable triggerHandlers;
+    private final Map<Trigger, AsyncDispatch> asyncDispatches = new ConcurrentHashMap<>();
+    private final Map<Resolvable, List> bounds = new HashMap<>();
+    private final Map<Resolvable, Object> resolvedValues = new ConcurrentHashMap<>();
+    private final Object resolveLock = new Object();
+    private volatile Object[][] resolvedSelections = NO_SELECTIONS;
+    private final ParameterValues parameterValues;
+    private final LoadPlan plan;
+    private final InvocationStrategy strategy;
+    private final StepRecord[] records;
+    private final StepRecord[] postRecords;
+    private final LoadListener listener;
+    private final int[] loadLog;
+    private int loadLogSize;
+    private final boolean lazy;
+    private final ModuleState parent;
+    private int ensureDepth;
+    private volatile Set<Class> resolved = Collections.emptySet();
+    private volatile ComponentTable frozen;
+    
+    public ModuleState(LoadPlan plan, ParameterValues parameterValues, boolean lazy, ModuleState parent)
+    {
+        this.lazy = lazy;
+        this.parent = parent;
+        this.parameterValues = parameterValues;
+        this.plan = plan;
+        this.strategy = plan.getStrategy();
+        this.records = new StepRecord[plan.size()];
+        this.postRecords = new StepRecord[plan.postProcessorCount()];
+        this.listener = plan.getListener();
+        this.loadLog = new int[plan.size()];
+    }
+    
+    public LoadListener getListener()
+    {
+        return listener;
+    }
+    
+    public boolean isLazy()
+    {
+        return lazy;
+    }
+    
+    public ModuleState getParent()
+    {
+        return parent;
+    }
+    
+    public <T> T addComponent(Class<? super T> publicType, T instance) throws ModuleLoadException
+    {
+        return addComponent(publicType, instance, null);
+    }
+    
+    /**
+     * Adds a component provided by a loader. The types retrieved by the
+     * processors of the component are recorded in the given record, if any.
+     */
+    public <T> T addComponent(Class<? super T> publicType, T instance, StepRecord record) throws ModuleLoadException
+    {
+        Objects.requireNonNull(publicType, "null public type");
+        Objects.requireNonNull(instance, "null instance");
+        
+        registerComponent(publicType, instance, scanProcessable(instance, record));
+        return instance;
+    }
+    
+    public void shareComponent(Class publicType, Object instance)
+    {
+        registerComponent(publicType, instance, null);
+    }
+    
+    private void registerComponent(Class publicType, Object instance, ProcessHandler toProcess)
+    {
+        Class[] providedTypes = getHierarchy(publicType);
+        
+        synchronized(this)
+        {
+            for(int i = 0; i < providedTypes.length; i++)
+            {
+                List list = components.get(providedTypes[i]);
+                
+                if(list == null)
+                    components.put(providedTypes[i], list = new ArrayList<>());
+
+                list.add(instance);
+            }
+
+            if(toProcess != null)
+                processables.add(toProcess);
+        }
+    }
+    
+    private ProcessHandler scanProcessable(Object toScan, StepRecord record) throws ModuleLoadException
+    {
+        ProcessableMetadata metadata = ProcessableMetadata.of(toScan.getClass());
+        
+        if(!metadata.hasProcessors())
+            return null;
+        
+        if(listener == null)
+            return (ret) -> metadata.process(toScan, record == null ? ret : record.retriever(ret), strategy);
+        
+        return (ret) -> {
+            long start = System.nanoTime();
+            metadata.process(toScan, record == null ? ret : record.retriever(ret), strategy);
+            listener.processorsExecuted(toScan, System.nanoTime() - start);
+        };
+    }
+    
+    private ComponentTable getTable(Class type)
+    {
+        if(lazy && !resolved.contains(type))
+            return null;
+        
+        return frozen;
+    }
+    
+    /**
+     * In lazy mode, executes the loaders needed to provide the given type.
+     * Once the outermost request is done, the component table is republished
+     * and the new processables are executed.
+     */
+    private synchronized void ensure(Class type) throws ModuleLoadException
+    {
+        if(!lazy || resolved.contains(type))
+            return;
+        
+        boolean executed;
+        ensureDepth++;
+        
+        try
+        {
+            executed = plan.ensure(this, type);
+        }
+        finally
+        {
+            ensureDepth--;
+        }
+        
+        if(ensureDepth > 0)
+            return;
+        
+        Set<Class> newResolved = new HashSet<>(resolved);
+        newResolved.add(type);
+        
+        if(executed)
+            frozen = new ComponentTable(components);
+        
+        resolved = newResolved;
+        
+        if(executed)
+            runProcessables();
+    }
+    
+    public boolean hasComponent(Class compType)
+    {
+        ComponentTable table = getTable(compType);
+        
+        boolean found;
+        
+        if(table != null)
+        {
+            found = table.contains(compType);
+        }
+        else
+        {
+            synchronized(this)
+            {
+                ensure(compType);
+                found = components.containsKey(compType);
+            }
+        }
+        
+        return found || parent != null && parent.hasComponent(compType);
+    }
+    
+    @Override
+    public <T> T get(Class<T> requiredType) throws ModuleLoadException
+    {
+        ComponentTable table = getTable(requiredType);
+        
+        if(table != null)
+        {
+            if(parent == null || table.contains(requiredType))
+                return (T)table.get(requiredType);
+            
+            return parent.get(requiredType);
+        }
+        
+        synchronized(this)
+        {
+            ensure(requiredType);
+            
+            if(!components.containsKey(requiredType))
+            {
+                if(parent != null)
+                    return parent.get(requiredType);
+                
+                throw new MissingComponentException(requiredType);
+            }
+
+            List list = components.get(requiredType);
+
+            if(list.size() > 1)
+                throw new AmbiguousImplementationException(requiredType, list.get(0), list.get(1));
+
+            return (T)list.get(0);
+        }
+    }
+
+    @Override
+    public boolean contains(Class type)
+    {
+        return hasComponent(Objects.requireNonNull(type, "null type"));
+    }
+    
+    @Override
+    public <T> void addListener(Trigger<T> param, Consumer<T> listener)
+    {
+        addHandler(param, listener);
+    }
+    
+    @Override
+    public void addIntListener(IntTrigger param, IntConsumer listener)
+    {
+        addHandler(param, listener);
+    }
+    
+    @Override
+    public void addLongListener(LongTrigger param, LongConsumer listener)
+    {
+        addHandler(param, listener);
+    }
+    
+    @Override
+    public void addDoubleListener(DoubleTrigger param, DoubleConsumer listener)
+    {
+        addHandler(param, listener);
+    }
+    
+    /**
+     * Registers a trigger handler, which is a {@link Consumer} or, for the
+     * primitive triggers, the matching primitive consumer.
+     */
+    public synchronized void addHandler(Trigger param, Object handler)
+    {
+        Objects.requireNonNull(param, "null parameter");
+        Objects.requireNonNull(handler, "null listener");
+        
+        if(!parameterTriggers.containsKey(param))
+            parameterTriggers.put(param, new ArrayList());
+        
+        parameterTriggers.get(param).add(handler);
+        
+        if(triggerHandlers != null)
+            freezeTriggers();
+    }
+    
+    /**
+     * Publishes an immutable copy of the trigger handlers, indexed by the id of
+     * each trigger. The copy is replaced whenever a listener is added to a
+     * finished module.
+     */
+    private synchronized void freezeTriggers()
+    {
+        int[] ids = new int[parameterTriggers.size()];
+        Object[] handlers = new Object[ids.length];
+        int pos = 0;
+        
+        for(Map.Entry<Trigger, List> entry : parameterTriggers.entrySet())
+        {
+            ids[pos] = entry.getKey().getId();
+            handlers[pos++] = entry.getValue().toArray();
+        }
+        
+        triggerHandlers = IdTable.of(ids, handlers, pos);
+    }
+
+    @Override
+    public <T> void addBoundHandler(Resolvable<T> value, Consumer<T> handler)
+    {
+        addBoundHandler(value, handler, null);
+    }
+    
+    /**
+     * Adds a bound handler registered by a loader or post-processor. The types
+     * retrieved to resolve the value are recorded in the given record, if any.
+     */
+    public synchronized <T> void addBoundHandler(Resolvable<T> value, Consumer<T> handler, StepRecord record)
+    {
+        Objects.requireNonNull(value, "null value");
+        Objects.requireNonNull(handler, "null handler");
+        
+        if(!bounds.containsKey(value))
+        {
+            bounds.put(value, new ArrayList());
+            processables.add((ret) -> {
+                long start = listener == null ? 0 : System.nanoTime();
+                Set<Class> retrieved = new HashSet<>();
+                T finalValue = value.resolve(StepRecord.recording(ret, retrieved));
+                List handlers;
+                
+                synchronized(this)
+                {
+                    handlers = bounds.remove(value);
+                }
+                
+                for(int i = 0; i < handlers.size(); i += 2)
+                {
+                    ((Consumer<T>)handlers.get(i)).accept(finalValue);
+                    StepRecord owner = (StepRecord)handlers.get(i + 1);
+                    
+                    if(owner != null)
+                        owner.addRetrieved(retrieved);
+                }
+                
+                if(listener != null)
+                    listener.boundHandlersExecuted(value, finalValue, System.nanoTime() - start);
+            });
+        }
+        
+        List handlers = bounds.get(value);
+        handlers.add(handler);
+        handlers.add(record);
+    }
+    
+    private Object[] getHandlers(Trigger param) throws ModuleException
+    {
+        IdTable handlers = triggerHandlers;
+        Object[] toRun;
+        
+        if(handlers != null)
+        {
+            toRun = (Object[])handlers.get(param.getId());
+        }
+        else
+        {
+            synchronized(this)
+            {
+                List list = parameterTriggers.get(param);
+                toRun = list == null ? null : list.toArray();
+            }
+        }
+        
+        if(toRun == null)
+            throw new ModuleException("No handlers were registered for the trigger parameter '" + param + "'");
+        
+        return toRun;
+    }
+    
+    private boolean offerAsync(Trigger param, Object value) throws ModuleException
+    {
+        if(triggerHandlers == null)
+            return false;
+        
+        AsyncDispatch async = asyncDispatches.get(param);
+        
+        if(async == null)
+        {
+            AsyncDispatch newAsync = new AsyncDispatch(param);
+            async = asyncDispatches.putIfAbsent(param, newAsync);
+            
+            if(async == null)
+                async = newAsync;
+        }
+        
+        async.offer(value);
+        return true;
+    }
+    
+    public <T> void setOnline(Trigger<T> param, T value) throws ModuleException
+    {
+        Object[] toRun = getHandlers(param);
+        
+        if(value == null || param.isAsync() && offerAsync(param, value))
+            return;
+        
+        dispatch(toRun, value);
+    }
+    
+    public void setOnline(IntTrigger param, int value) throws ModuleException
+    {
+        Object[] toRun = getHandlers(param);
+        
+        if(param.isAsync() && offerAsync(param, value))
+            return;
+        
+        for(int i = 0; i < toRun.length; i++)
+        {
+            if(toRun[i] instanceof IntConsumer)
+                ((IntConsumer)toRun[i]).accept(value);
+            else
+                ((Consumer)toRun[i]).accept(value);
+        }
+    }
+    
+    public void setOnline(LongTrigger param, long value) throws ModuleException
+    {
+        Object[] toRun = getHandlers(param);
+        
+        if(param.isAsync() && offerAsync(param, value))
+            return;
+        
+        for(int i = 0; i < toRun.length; i++)
+        {
+            if(toRun[i] instanceof LongConsumer)
+                ((LongConsumer)toRun[i]).accept(value);
+            else
+                ((Consumer)toRun[i]).accept(value);
+        }
+    }
+    
+    public void setOnline(DoubleTrigger param, double value) throws ModuleException
+    {
+        Object[] toRun = getHandlers(param);
+        
+        if(param.isAsync() && offerAsync(param, value))
+            return;
+        
+        for(int i = 0; i < toRun.length; i++)
+        {
+            if(toRun[i] instanceof DoubleConsumer)
+                ((DoubleConsumer)toRun[i]).accept(value);
+            else
+                ((Consumer)toRun[i]).accept(value);
+        }
+    }
+    
+    private static void dispatch(Object[] toRun, Object value)
+    {
+        for(int i = 0; i < toRun.length; i++)
+        {
+            Object handler = toRun[i];
+            
+            if(handler instanceof Consumer)
+                ((Consumer)handler).accept(value);
+            else if(handler instanceof IntConsumer)
+                ((IntConsumer)handler).accept((Integer)value);
+            else if(handler instanceof LongConsumer)
+                ((LongConsumer)handler).accept((Long)value);
+            else
+                ((DoubleConsumer)handler).accept((Double)value);
+        }
+    }
+
+    @Override
+    public <T> T getValue(Parameter<T> param)
+    {
+        return (T)parameterValues.get(Objects.requireNonNull(param, "null parameter"));
+    }
+
+    @Override
+    public <T> T getRequiredValue(Parameter<T> param) throws ModuleLoadException
+    {
+        T val = getValue(param);
+        
+        if(val == null)
+            throw new MissingParameterException(param);
+        
+        return val;
+    }
+
+    @Override
+    public boolean isValueSet(Parameter param)
+    {
+        return parameterValues.isSet(Objects.requireNonNull(param, "null parameter"));
+    }
+    
+    public void setRecord(int index, StepRecord record)
+    {
+        records[index] = record;
+    }
+    
+    public StepRecord getRecord(int index)
+    {
+        return records[index];
+    }
+    
+    /**
+     * Gets a copy of the step records, taken under the lock of this state so
+     * it does not race with the steps executed on demand in lazy mode.
+     */
+    public synchronized StepRecord[] getRecords()
+    {
+        return records.clone();
+    }
+    
+    public void setPostRecord(int index, StepRecord record)
+    {
+        postRecords[index] = record;
+    }
+    
+    public StepRecord getPostRecord(int index)
+    {
+        return postRecords[index];
+    }
+    
+    /**
+     * Resolves the given value with this state as retriever, caching non-null
+     * results. The results of {@link SelectableValue} instances are cached in
+     * a copy-on-write table indexed by their type ids and slots. Concurrent
+     * first resolutions of the same value may call it more than once, but only
+     * one result is kept.
+     */
+    public <T> T resolve(Resolvable<T> value) throws ModuleLoadException
+    {
+        if(!(value instanceof SelectableValue))
+        {
+            Object resolved = resolvedValues.get(value);
+            
+            if(resolved == null && (resolved = value.resolve(this)) != null)
+            {
+                Object previous = resolvedValues.putIfAbsent(value, resolved);
+                
+                if(previous != null)
+                    resolved = previous;
+            }
+            
+            return (T)resolved;
+        }
+        
+        SelectableValue selectable = (SelectableValue)value;
+        Object selected = getSelection(resolvedSelections, selectable);
+        
+        if(selected != null)
+            return (T)selected;
+        
+        T resolved = value.resolve(this);
+        
+        if(resolved == null)
+            return null;
+        
+        synchronized(resolveLock)
+        {
+            selected = getSelection(resolvedSelections, selectable);
+            
+            if(selected != null)
+                return (T)selected;
+            
+            resolvedSelections = withSelection(resolvedSelections, selectable, resolved);
+        }
+        
+        return resolved;
+    }
+    
+    public void invalidate(Resolvable value)
+    {
+        if(!(value instanceof SelectableValue))
+        {
+            resolvedValues.remove(value);
+            return;
+        }
+        
+        SelectableValue selectable = (SelectableValue)value;
+        
+        synchronized(resolveLock)
+        {
+            if(getSelection(resolvedSelections, selectable) != null)
+                resolvedSelections = withSelection(resolvedSelections, selectable, null);
+        }
+    }
+    
+    private static Object getSelection(Object[][] table, SelectableValue value)
+    {
+        int typeId = value.getTypeId();
+        
+        if(typeId >= table.length || table[typeId] == null)
+            return null;
+        
+        Object[] row = table[typeId];
+        int slot = value.getSlot();
+        return slot < row.length ? row[slot] : null;
+    }
+    
+    private static Object[][] withSelection(Object[][] table, SelectableValue value, Object selected)
+    {
+        int typeId = value.getTypeId();
+        int slot = value.getSlot();
+        Object[][] copy = Arrays.copyOf(table, Math.max(table.length, typeId + 1));
+        Object[] row = copy[typeId] == null ? NO_VALUES : copy[typeId];
+        row = Arrays.copyOf(row, Math.max(row.length, slot + 1));
+        row[slot] = selected;
+        copy[typeId] = row;
+        return copy;
+    }
+    
+    public void invalidateResolved()
+    {
+        synchronized(resolveLock)
+        {
+            resolvedSelections = NO_SELECTIONS;
+            resolvedValues.clear();
+        }
+    }
+    
+    /**
+     * Builds a state with the given parameter values from this one. When
+     * {@code isolated} is set, the steps that registered trigger listeners are
+     * executed again, so triggers set on the new state do not reach the
+     * components of this one.
+     */
+    public ModuleState fork(Map<Parameter, Object> overrides, boolean isolated) throws ModuleLoadException
+    {
+        Objects.requireNonNull(overrides, "null overrides");
+        
+        Map<Parameter, Object> changedValues = new HashMap<>();
+        
+        for(Map.Entry<Parameter, Object> entry : overrides.entrySet())
+        {
+            Parameter param = Objects.requireNonNull(entry.getKey(), "null parameter");
+            Object value = entry.getValue();
+            
+            if(!Objects.equals(parameterValues.get(param), value))
+                changedValues.put(param, value);
+        }
+        
+        return plan.rebuild(this, parameterValues.withAll(changedValues), changedValues.keySet(), isolated);
+    }
+    
+    public synchronized void addToLoadLog(int stepIndex)
+    {
+        loadLog[loadLogSize++] = stepIndex;
+    }
+    
+    /**
+     * Gets the loaders whose results are available in this module, including
+     * the ones shared from a previous module and the ones of the parent.
+     */
+    public Set<LoaderNode> getExecutedLoaders()
+    {
+        Set<LoaderNode> loaders = parent == null ? new HashSet<>() : parent.getExecutedLoaders();
+        StepRecord[] currentRecords = getRecords();
+        
+        for(int i = 0; i < currentRecords.length; i++)
+        {
+            if(currentRecords[i] != null)
+                loaders.add(plan.getNode(i));
+        }
+        
+        return loaders;
+    }
+    
+    public synchronized Method[] getLoadLog()
+    {
+        Method[] loaders = new Method[loadLogSize];
+        
+        for(int i = 0; i < loadLogSize; i++)
+            loaders[i] = plan.getNode(loadLog[i]).getLoader();
+        
+        return loaders;
+    }
+    
+    private void runProcessables() throws ModuleLoadException
+    {
+        ProcessHandler[] toRun;
+        
+        synchronized(this)
+        {
+            toRun = processables.toArray(new ProcessHandler[0]);
+            processables.clear();
+        }
+        
+        for(ProcessHandler proc : toRun)
+            proc.process(this);
+    }
+    
+    public void finish() throws ModuleLoadException
+    {
+        synchronized(this)
+        {
+            frozen = new ComponentTable(components);
+            freezeTriggers();
+        }
+        
+        runProcessables();
+    }
+}
@@ -0,0 +1,33 @@
+
+package optefx.loader;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+public class Parameter<T> extends TaggedEntity
+{
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private final int id = IDS.getAndIncrement();
+
+    public Parameter()
+    {
+    }
+
+    public Parameter(String name)
+    {
+        super(name);
+    }
+
+    /**
+     * Dense id of this parameter, used to index the parameter values of the
+     * modules.
+     */
+    final int getId()
+    {
+        return id;
+    }
+}
@@ -0,0 +1,55 @@
+
+package optefx.loader;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+public interface ParameterRegister
+{
+    <T> void addListener(Trigger<T> param, Consumer<T> listener);
+    <T> void addBoundHandler(Resolvable<T> value, Consumer<T> handler);
+    <T> T getValue(Parameter<T> param) throws ModuleLoadException;
+    <T> T getRequiredValue(Parameter<T> param) throws ModuleLoadException;
+    boolean isValueSet(Parameter param);
+    
+    /**
+     * Adds a listener receiving the unboxed values of the trigger. By default,
+     * it is registered as a boxed listener; the registers of the modules
+     * override it to dispatch the values without boxing.
+     */
+    default void addIntListener(IntTrigger param, IntConsumer listener)
+    {
+        addListener(param, listener::accept);
+    }
+    
+    default void addLongListener(LongTrigger param, LongConsumer listener)
+    {
+        addListener(param, listener::accept);
+    }
+    
+    default void addDoubleListener(DoubleTrigger param, DoubleConsumer listener)
+    {
+        addListener(param, listener::accept);
+    }
+    
+    default int getInt(IntParameter param) throws ModuleLoadException
+    {
+        return getRequiredValue(param);
+    }
+    
+    default long getLong(LongParameter param) throws ModuleLoadException
+    {
+        return getRequiredValue(param);
+    }
+    
+    default double getDouble(DoubleParameter param) throws ModuleLoadException
+    {
+        return getRequiredValue(param);
+    }
+}
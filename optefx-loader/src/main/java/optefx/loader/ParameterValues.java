@@ -0,0 +1,71 @@
+
+package optefx.loader;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable parameter values, stored in an {@link IdTable} by the dense id of
+ * each parameter. Updates return a new instance, so a set of values can be
+ * shared by any number of modules without copying.
+ *
+ * @author Enrique Urra C.
+ */
+final class ParameterValues
+{
+    public static final ParameterValues EMPTY = new ParameterValues(IdTable.EMPTY);
+
+    private final IdTable values;
+
+    private ParameterValues(IdTable values)
+    {
+        this.values = values;
+    }
+
+    public Object get(Parameter param)
+    {
+        return values.get(param.getId());
+    }
+
+    public boolean isSet(Parameter param)
+    {
+        return get(param) != null;
+    }
+
+    /**
+     * Gets a copy of these values with the given value set. A null value
+     * clears the parameter.
+     */
+    public ParameterValues with(Parameter param, Object value)
+    {
+        int id = Objects.requireNonNull(param, "null parameter").getId();
+
+        if(get(param) == value)
+            return this;
+
+        return new ParameterValues(values.with(id, value));
+    }
+
+    public ParameterValues withAll(Map<Parameter, Object> overrides)
+    {
+        if(overrides.isEmpty())
+            return this;
+
+        int[] ids = new int[overrides.size()];
+        Object[] newValues = new Object[ids.length];
+        int pos = 0;
+
+        for(Map.Entry<Parameter, Object> entry : overrides.entrySet())
+        {
+            ids[pos] = Objects.requireNonNull(entry.getKey(), "null parameter").getId();
+            newValues[pos++] = entry.getValue();
+        }
+
+        return new ParameterValues(values.with(ids, newValues, pos));
+    }
+
+    int capacity()
+    {
+        return values.capacity();
+    }
+}
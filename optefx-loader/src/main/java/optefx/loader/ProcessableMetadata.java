@@ -0,0 +1,173 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-class information about the {@link Processable} methods of a component.
+ * It is computed once for each class, including the processors declared by its
+ * superclasses, which are executed first.
+ *
+ * @author Enrique Urra C.
+ */
+final class ProcessableMetadata
+{
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final ProcessableMetadata NONE = new ProcessableMetadata(new Method[0], null, null);
+
+    private static final ClassValue<ProcessableMetadata> METADATA = new ClassValue<ProcessableMetadata>()
+    {
+        @Override
+        protected ProcessableMetadata computeValue(Class<?> type)
+        {
+            return scan(type);
+        }
+    };
+
+    public static ProcessableMetadata of(Class type) throws ModuleLoadException
+    {
+        ProcessableMetadata metadata = METADATA.get(type);
+
+        if(metadata.error != null)
+            throw new ModuleLoadException(metadata.error, metadata.errorCause);
+
+        return metadata;
+    }
+
+    private static ProcessableMetadata scan(Class type)
+    {
+        List<Class> chain = new ArrayList<>();
+
+        for(Class current = type; current != null && !current.equals(Object.class); current = current.getSuperclass())
+            chain.add(0, current);
+
+        List<Method> found = new ArrayList<>();
+
+        for(int i = 0; i < chain.size(); i++)
+        {
+            Method[] methods = chain.get(i).getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::toString));
+
+            for(Method method : methods)
+            {
+                if(!method.isAnnotationPresent(Processable.class))
+                    continue;
+
+                if(Modifier.isStatic(method.getModifiers()))
+                    return new ProcessableMetadata(null, "The processor method '" + method + "' must be an instance method for processing", null);
+
+                if(!method.getReturnType().equals(void.class) || method.getParameterCount() > 1 ||
+                    (method.getParameterCount() == 1 && !method.getParameterTypes()[0].equals(Retriever.class)))
+                {
+                    return new ProcessableMetadata(null, "The processor method '" + method + "' has a bad signature", null);
+                }
+
+                if(isProcessedBySubclass(method, chain.subList(i + 1, chain.size())))
+                    continue;
+
+                try
+                {
+                    if(!method.isAccessible())
+                        method.setAccessible(true);
+                }
+                catch(SecurityException ex)
+                {
+                    return new ProcessableMetadata(null, "Cannot access to the processor method '" + method + "': " + ex.getLocalizedMessage(), ex);
+                }
+
+                found.add(method);
+            }
+        }
+
+        if(found.isEmpty())
+            return NONE;
+
+        return new ProcessableMetadata(found.toArray(new Method[0]), null, null);
+    }
+
+    private static boolean isProcessedBySubclass(Method method, List<Class> subclasses)
+    {
+        if(Modifier.isPrivate(method.getModifiers()))
+            return false;
+
+        for(Class subclass : subclasses)
+        {
+            try
+            {
+                Method overrider = subclass.getDeclaredMethod(method.getName(), method.getParameterTypes());
+
+                if(overrider.isAnnotationPresent(Processable.class))
+                    return true;
+            }
+            catch(NoSuchMethodException ex)
+            {
+            }
+        }
+
+        return false;
+    }
+
+    private final Method[] methods;
+    private final boolean[] takesRetriever;
+    private final String error;
+    private final Throwable errorCause;
+    private final AtomicReferenceArray<InvocationStrategy.Invoker[]> invokers;
+
+    private ProcessableMetadata(Method[] methods, String error, Throwable errorCause)
+    {
+        this.methods = methods;
+        this.takesRetriever = new boolean[methods == null ? 0 : methods.length];
+        this.error = error;
+
+        for(int i = 0; i < takesRetriever.length; i++)
+            takesRetriever[i] = methods[i].getParameterCount() == 1;
+        this.errorCause = errorCause;
+        this.invokers = new AtomicReferenceArray<>(InvocationStrategy.values().length);
+    }
+
+    public boolean hasProcessors()
+    {
+        return methods.length > 0;
+    }
+
+    private InvocationStrategy.Invoker[] getInvokers(InvocationStrategy strategy) throws ModuleLoadException
+    {
+        InvocationStrategy.Invoker[] bound = invokers.get(strategy.ordinal());
+
+        if(bound == null)
+        {
+            bound = new InvocationStrategy.Invoker[methods.length];
+
+            for(int i = 0; i < methods.length; i++)
+                bound[i] = strategy.bind(methods[i]);
+
+            invokers.set(strategy.ordinal(), bound);
+        }
+
+        return bound;
+    }
+
+    public void process(Object target, Retriever ret, InvocationStrategy strategy) throws ModuleLoadException
+    {
+        InvocationStrategy.Invoker[] bound = getInvokers(strategy);
+        Object[] retArgs = null;
+
+        for(int i = 0; i < bound.length; i++)
+        {
+            try
+            {
+                bound[i].invoke(target, takesRetriever[i] ? (retArgs == null ? retArgs = new Object[] { ret } : retArgs) : NO_ARGS);
+            }
+            catch(Throwable ex)
+            {
+                throw new ModuleLoadException("Cannot execute the processor method '" + methods[i] + "': " + ex.getMessage(), ex);
+            }
+        }
+    }
+}
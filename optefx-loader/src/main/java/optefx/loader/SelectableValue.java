@@ -0,0 +1,81 @@
+
+package optefx.loader;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+public class SelectableValue<T> implements Resolvable<T>
+{
+    /**
+     * Slot numbering of the values bound to a type. The slots of each bounded
+     * type start at zero, so the values selected by the same component get
+     * small slots regardless of how many values exist in the program.
+     */
+    private static final class Slots
+    {
+        private static final AtomicInteger TYPE_IDS = new AtomicInteger();
+
+        private final int typeId = TYPE_IDS.getAndIncrement();
+        private final AtomicInteger next = new AtomicInteger();
+    }
+
+    private static final ClassValue<Slots> SLOTS = new ClassValue<Slots>()
+    {
+        @Override
+        protected Slots computeValue(Class<?> type)
+        {
+            return new Slots();
+        }
+    };
+
+    private final int typeId;
+    private final int slot;
+    private final Class boundedType;
+    private final Function mapProvider;
+
+    public <K> SelectableValue(Class<K> boundedType, Function<K, Selector> selectorProvider)
+    {
+        this.boundedType = Objects.requireNonNull(boundedType, "null bounded type");
+        this.mapProvider = Objects.requireNonNull(selectorProvider, "null selector provider");
+
+        Slots slots = SLOTS.get(boundedType);
+        this.typeId = slots.typeId;
+        this.slot = slots.next.getAndIncrement();
+    }
+
+    /**
+     * Dense id of the bounded type of this value, used with its slot to index
+     * the resolved values of the modules.
+     */
+    final int getTypeId()
+    {
+        return typeId;
+    }
+
+    /**
+     * Dense slot of this value among the values with the same bounded type,
+     * used to index the dense selectors.
+     */
+    final int getSlot()
+    {
+        return slot;
+    }
+
+    @Override
+    public final T resolve(Retriever ret) throws ModuleLoadException
+    {
+        if(!ret.contains(boundedType))
+            throw new ModuleLoadException("Cannot retrieve a required bounded instance: '" + boundedType + "'");
+        
+        Object bounded = ret.get(boundedType);
+        Function<Object, Selector> prov = mapProvider;
+        Selector<Resolvable, T> map = prov.apply(bounded);
+        
+        return map.get(this);
+    }
+}
@@ -0,0 +1,118 @@
+
+package optefx.loader;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maps keys, usually {@link SelectableValue} instances, to values. A dense
+ * selector also stores its {@link SelectableValue} keys and their values in
+ * arrays indexed by the slots of the keys, so getting them does not hash the
+ * key. Slots are numbered per bounded type, so the arrays only grow to the
+ * number of values bound to the types of the keys. A key whose slot is taken
+ * by a key of another bounded type is only found in the map.
+ *
+ * @author Enrique Urra C.
+ */
+public class Selector<K, V>
+{
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final Map<K, V> map = new HashMap<>();
+    private final boolean dense;
+    private Object[] keys = NO_VALUES;
+    private Object[] values = NO_VALUES;
+
+    public Selector()
+    {
+        this(false);
+    }
+
+    public Selector(boolean dense)
+    {
+        this.dense = dense;
+    }
+
+    public <P extends V> P add(K key, P value)
+    {
+        Objects.requireNonNull(key, "null key");
+        Objects.requireNonNull(value, "null value");
+        
+        map.put(key, value);
+        
+        if(dense && key instanceof SelectableValue)
+        {
+            int slot = ((SelectableValue)key).getSlot();
+            
+            if(slot >= keys.length)
+            {
+                int length = Math.max(slot + 1, keys.length * 2);
+                keys = Arrays.copyOf(keys, length);
+                values = Arrays.copyOf(values, length);
+            }
+            
+            if(keys[slot] == null || keys[slot] == key)
+            {
+                keys[slot] = key;
+                values[slot] = value;
+            }
+        }
+        
+        return value;
+    }
+
+    public V get(K key) throws NoSuchElementException
+    {
+        if(dense && key instanceof SelectableValue)
+        {
+            int slot = ((SelectableValue)key).getSlot();
+            
+            if(slot < keys.length && keys[slot] == key)
+                return (V)values[slot];
+        }
+        
+        if(!map.containsKey(key))
+            throw new NoSuchElementException();
+        
+        return map.get(key);
+    }
+    
+    public V remove(K key)
+    {
+        if(dense && key instanceof SelectableValue)
+        {
+            int slot = ((SelectableValue)key).getSlot();
+            
+            if(slot < keys.length && keys[slot] == key)
+            {
+                keys[slot] = null;
+                values[slot] = null;
+            }
+        }
+        
+        return map.remove(key);
+    }
+    
+    public boolean contains(K key)
+    {
+        return map.containsKey(key);
+    }
+    
+    /**
+     * Gets an unmodifiable view of the keys of this selector.
+     */
+    public Set<K> getKeys()
+    {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+    
+    public int size()
+    {
+        return map.size();
+    }
+}
@@ -0,0 +1,183 @@
+
+package optefx.loader;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * What a single loader did while a module was built: the components it
+ * provided, the parameters it read, the trigger listeners it registered and
+ * the component types retrieved by the processors of its components and by
+ * its bound handlers.
+ * Records are used to share the results of unaffected loaders between derived
+ * modules.
+ *
+ * @author Enrique Urra C.
+ */
+final class StepRecord
+{
+    private static final class RecordingRetriever implements Retriever
+    {
+        private final Retriever ret;
+        private final Set<Class> retrieved;
+
+        public RecordingRetriever(Retriever ret, Set<Class> retrieved)
+        {
+            this.ret = ret;
+            this.retrieved = retrieved;
+        }
+
+        @Override
+        public <T> T get(Class<T> requiredType) throws ModuleLoadException
+        {
+            retrieved.add(requiredType);
+            return ret.get(requiredType);
+        }
+
+        @Override
+        public boolean contains(Class type)
+        {
+            retrieved.add(type);
+            return ret.contains(type);
+        }
+    }
+
+    private final class RecordingRegister implements ParameterRegister
+    {
+        private final ModuleState state;
+
+        public RecordingRegister(ModuleState state)
+        {
+            this.state = state;
+        }
+
+        @Override
+        public <T> void addListener(Trigger<T> param, Consumer<T> listener)
+        {
+            addHandler(param, listener);
+        }
+
+        @Override
+        public void addIntListener(IntTrigger param, IntConsumer listener)
+        {
+            addHandler(param, listener);
+        }
+
+        @Override
+        public void addLongListener(LongTrigger param, LongConsumer listener)
+        {
+            addHandler(param, listener);
+        }
+
+        @Override
+        public void addDoubleListener(DoubleTrigger param, DoubleConsumer listener)
+        {
+            addHandler(param, listener);
+        }
+
+        private void addHandler(Trigger param, Object handler)
+        {
+            state.addHandler(param, handler);
+            listeners.add(param);
+            listeners.add(handler);
+        }
+
+        @Override
+        public <T> void addBoundHandler(Resolvable<T> value, Consumer<T> handler)
+        {
+            state.addBoundHandler(value, handler, StepRecord.this);
+        }
+
+        @Override
+        public <T> T getValue(Parameter<T> param) throws ModuleLoadException
+        {
+            reads.add(param);
+            return state.getValue(param);
+        }
+
+        @Override
+        public <T> T getRequiredValue(Parameter<T> param) throws ModuleLoadException
+        {
+            reads.add(param);
+            return state.getRequiredValue(param);
+        }
+
+        @Override
+        public boolean isValueSet(Parameter param)
+        {
+            reads.add(param);
+            return state.isValueSet(param);
+        }
+    }
+
+    private final List<Object> components = new ArrayList<>(2);
+    private final List<Object> listeners = new ArrayList<>(0);
+    private final Set<Parameter> reads = new HashSet<>(2);
+    private final Set<Class> retrieved = new HashSet<>(0);
+
+    /**
+     * Gets a retriever that records the types retrieved through it in the
+     * given set.
+     */
+    public static Retriever recording(Retriever ret, Set<Class> retrieved)
+    {
+        return new RecordingRetriever(ret, retrieved);
+    }
+
+    public Retriever retriever(Retriever ret)
+    {
+        return new RecordingRetriever(ret, retrieved);
+    }
+
+    public void addRetrieved(Set<Class> types)
+    {
+        retrieved.addAll(types);
+    }
+
+    public Set<Class> getRetrieved()
+    {
+        return retrieved;
+    }
+
+    public ParameterRegister register(ModuleState state)
+    {
+        return new RecordingRegister(state);
+    }
+
+    public void addComponent(Class type, Object instance)
+    {
+        components.add(type);
+        components.add(instance);
+    }
+
+    public boolean hasListeners()
+    {
+        return !listeners.isEmpty();
+    }
+
+    public boolean readsAny(Set<Parameter> params)
+    {
+        for(Parameter read : reads)
+        {
+            if(params.contains(read))
+                return true;
+        }
+
+        return false;
+    }
+
+    public void replay(ModuleState state) throws ModuleLoadException
+    {
+        for(int i = 0; i < components.size(); i += 2)
+            state.shareComponent((Class)components.get(i), components.get(i + 1));
+
+        for(int i = 0; i < listeners.size(); i += 2)
+            state.addHandler((Trigger)listeners.get(i), listeners.get(i + 1));
+    }
+}
@@ -0,0 +1,63 @@
+
+package optefx.loader;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parameter whose new values are notified online to the listeners registered
+ * in a module. A trigger created with an executor dispatches its values
+ * asynchronously: the listeners run on the executor, and values set while a
+ * previous one is still pending are coalesced, so only the latest is
+ * delivered.
+ *
+ * @author Enrique Urra C.
+ */
+public class Trigger<T> extends TaggedEntity
+{
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private final int id = IDS.getAndIncrement();
+    private final Executor executor;
+
+    public Trigger()
+    {
+        this.executor = null;
+    }
+
+    public Trigger(String name)
+    {
+        super(name);
+        this.executor = null;
+    }
+
+    public Trigger(Executor executor)
+    {
+        this.executor = Objects.requireNonNull(executor, "null executor");
+    }
+
+    public Trigger(String name, Executor executor)
+    {
+        super(name);
+        this.executor = Objects.requireNonNull(executor, "null executor");
+    }
+
+    /**
+     * Dense id of this trigger, used to index the handlers of the modules.
+     */
+    final int getId()
+    {
+        return id;
+    }
+
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    public boolean isAsync()
+    {
+        return executor != null;
+    }
+}
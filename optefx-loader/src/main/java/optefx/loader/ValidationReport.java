@@ -0,0 +1,225 @@
+
+package optefx.loader;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of the validation of the whole loader graph of a
+ * {@link ModuleLoader}, computed without executing any loader. It reports
+ * every dependency cycle, every dependency without providers and every
+ * dependency with more than one provider.
+ *
+ * @author Enrique Urra C.
+ */
+public final class ValidationReport
+{
+    private final List<List<Method>> cycles;
+    private final Map<Method, Set<Class>> unmetDependencies;
+    private final Map<Class, List<Method>> ambiguousProviders;
+
+    private ValidationReport(List<List<Method>> cycles, Map<Method, Set<Class>> unmetDependencies, Map<Class, List<Method>> ambiguousProviders)
+    {
+        this.cycles = Collections.unmodifiableList(cycles);
+        this.unmetDependencies = Collections.unmodifiableMap(unmetDependencies);
+        this.ambiguousProviders = Collections.unmodifiableMap(ambiguousProviders);
+    }
+
+    /**
+     * Gets the loaders of each cycle, that is, of each strongly connected
+     * component of the graph with more than one loader or with a loader that
+     * depends on itself.
+     */
+    public List<List<Method>> getCycles()
+    {
+        return cycles;
+    }
+
+    public Map<Method, Set<Class>> getUnmetDependencies()
+    {
+        return unmetDependencies;
+    }
+
+    /**
+     * Gets the requested types provided by more than one loader, which make
+     * the requesters fail when they are executed.
+     */
+    public Map<Class, List<Method>> getAmbiguousProviders()
+    {
+        return ambiguousProviders;
+    }
+
+    public boolean isValid()
+    {
+        return cycles.isEmpty() && unmetDependencies.isEmpty() && ambiguousProviders.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        if(isValid())
+            return "Valid loader graph";
+
+        StringBuilder sb = new StringBuilder("Invalid loader graph:");
+
+        for(List<Method> cycle : cycles)
+            sb.append("\n> Cyclic loader dependency between: ").append(cycle);
+
+        for(Map.Entry<Method, Set<Class>> entry : unmetDependencies.entrySet())
+            sb.append("\n> Unmet dependencies ").append(entry.getValue()).append(" of the loader '").append(entry.getKey()).append("'");
+
+        for(Map.Entry<Class, List<Method>> entry : ambiguousProviders.entrySet())
+            sb.append("\n> Ambiguous providers of (").append(entry.getKey()).append("): ").append(entry.getValue());
+
+        return sb.toString();
+    }
+
+    /**
+     * Validates the given loaders in linear time, using an iterative version
+     * of the Tarjan's algorithm to find the cycles.
+     */
+    static ValidationReport validate(LoaderGraph graph)
+    {
+        int count = graph.getNodeCount();
+        Map<Method, Set<Class>> unmet = new LinkedHashMap<>();
+        Map<Class, List<Method>> ambiguous = new LinkedHashMap<>();
+        int[][] edges = new int[count][];
+        boolean[] selfEdges = new boolean[count];
+
+        for(int i = 0; i < count; i++)
+        {
+            LoaderNode node = graph.getNode(i);
+            Set<Integer> targets = new LinkedHashSet<>();
+
+            for(int arg = 0; arg < node.getParameterTypes().length; arg++)
+            {
+                int type = graph.getArgType(i, arg);
+
+                if(type == LoaderGraph.NO_TYPE)
+                    continue;
+
+                Class dependency = graph.getType(type);
+                List<Method> providers = new ArrayList<>();
+
+                for(int j = 0; j < graph.getProviderCount(type); j++)
+                {
+                    int child = graph.getProvider(type, j);
+
+                    if(child == i && node.declares(dependency))
+                        continue;
+
+                    providers.add(graph.getNode(child).getLoader());
+                    targets.add(child);
+                }
+
+                if(providers.isEmpty())
+                {
+                    if(!unmet.containsKey(node.getLoader()))
+                        unmet.put(node.getLoader(), new LinkedHashSet<>());
+
+                    unmet.get(node.getLoader()).add(dependency);
+                }
+                else if(providers.size() > 1 && !ambiguous.containsKey(dependency))
+                {
+                    ambiguous.put(dependency, providers);
+                }
+            }
+
+            edges[i] = new int[targets.size()];
+            int pos = 0;
+
+            for(Integer target : targets)
+            {
+                edges[i][pos++] = target;
+                selfEdges[i] |= target == i;
+            }
+        }
+
+        return new ValidationReport(findCycles(graph, edges, selfEdges), unmet, ambiguous);
+    }
+
+    private static List<List<Method>> findCycles(LoaderGraph graph, int[][] edges, boolean[] selfEdges)
+    {
+        int count = graph.getNodeCount();
+        int[] indexes = new int[count];
+        int[] lowLinks = new int[count];
+        int[] nextEdges = new int[count];
+        boolean[] onStack = new boolean[count];
+        int[] stack = new int[count];
+        int[] callStack = new int[count];
+        int stackSize = 0;
+        int nextIndex = 1;
+        List<List<Method>> cycles = new ArrayList<>();
+
+        for(int root = 0; root < count; root++)
+        {
+            if(indexes[root] != 0)
+                continue;
+
+            int depth = 0;
+            callStack[depth++] = root;
+            indexes[root] = lowLinks[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while(depth > 0)
+            {
+                int current = callStack[depth - 1];
+
+                if(nextEdges[current] < edges[current].length)
+                {
+                    int child = edges[current][nextEdges[current]++];
+
+                    if(indexes[child] == 0)
+                    {
+                        callStack[depth++] = child;
+                        indexes[child] = lowLinks[child] = nextIndex++;
+                        stack[stackSize++] = child;
+                        onStack[child] = true;
+                    }
+                    else if(onStack[child])
+                    {
+                        lowLinks[current] = Math.min(lowLinks[current], indexes[child]);
+                    }
+
+                    continue;
+                }
+
+                depth--;
+
+                if(depth > 0)
+                {
+                    int caller = callStack[depth - 1];
+                    lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[current]);
+                }
+
+                if(lowLinks[current] != indexes[current])
+                    continue;
+
+                List<Method> component = new ArrayList<>();
+                int member;
+
+                do
+                {
+                    member = stack[--stackSize];
+                    onStack[member] = false;
+                    component.add(graph.getNode(member).getLoader());
+                }
+                while(member != current);
+
+                Collections.reverse(component);
+
+                if(component.size() > 1 || selfEdges[current])
+                    cycles.add(component);
+            }
+        }
+
+        return cycles;
+    }
+}
@@ -0,0 +1,1479 @@
+
+package optefx.loader;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.tools.ToolProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.ExpectedException;
+
+/**
+ *
+ * @author Enrique Urra C.
+ */
+public class LoaderTests
+{    
+    public static class Loaders
+    {
+        @LoadsComponent
+        public static void nonDeclaredProviding(ComponentRegister cr)
+        {
+            cr.provide(new EntityA());
+        }
+
+        @LoadsComponent({ Entity.class, ComplexEntity.class })
+        public static void missingProviding(ComponentRegister cr)
+        {
+            cr.provide(new EntityA(), Entity.class);
+        }
+    }
+    
+    @BeforeClass
+    public static void setUpClass()
+    {
+    }
+    
+    /*************** ENTITY ***************/
+    
+    public interface Entity
+    {
+        String getName();
+    }
+    
+    public interface Taggable
+    {
+        void setName(String name);
+    }
+    
+    public static class EntityA implements Entity
+    {
+        @LoadsComponent(EntityA.class)
+        public static void load(ComponentRegister cr)
+        {
+            cr.provide(new EntityA());
+        }
+        
+        @Override
+        public String getName()
+        {
+            return "entity A";
+        }
+    }
+    
+    public static class EntityB implements Entity
+    {
+        @LoadsComponent(Entity.class)
+        public static void load(ComponentRegister cr)
+        {
+            cr.provide(new EntityB(), Entity.class);
+        }
+        
+        @Override
+        public String getName()
+        {
+            return "entity B";
+        }
+    }
+    
+    public static class CyclicEntityA implements Entity
+    {
+        @LoadsComponent(CyclicEntityA.class)
+        public static void load(ComponentRegister cr, Entity e)
+        {
+            cr.provide(new CyclicEntityA(e));
+        }
+        
+        private final Entity entity;
+
+        public CyclicEntityA(Entity entity)
+        {
+            this.entity = entity;
+        }
+        
+        @Override
+        public String getName()
+        {
+            return entity.getName();
+        }
+    }
+    
+    public static class CyclicExtEntityA extends CyclicEntityA
+    {
+        @LoadsComponent(CyclicExtEntityA.class)
+        public static void load(ComponentRegister cr, CyclicEntityB ceB)
+        {
+            cr.provide(new CyclicExtEntityA(ceB));
+        }
+        
+        public CyclicExtEntityA(CyclicEntityB entity)
+        {
+            super(entity);
+        }
+    }
+    
+    public static class CyclicEntityB implements Entity
+    {
+        @LoadsComponent(CyclicEntityB.class)
+        public static void load(ComponentRegister cr, CyclicEntityA ceA)
+        {
+            cr.provide(new CyclicEntityB(ceA));
+        }
+        
+        private final Entity entity;
+
+        public CyclicEntityB(Entity entity)
+        {
+            this.entity = entity;
+        }
+        
+        @Override
+        public String getName()
+        {
+            return entity.getName();
+        }
+    }
+    
+    public static class CyclicEntity implements Entity
+    {
+        @LoadsComponent(CyclicEntity.class)
+        public static void load(ComponentRegister cr, CyclicComplexEntityB ceB)
+        {
+            cr.provide(new CyclicEntity(ceB));
+        }
+        
+        private final CyclicComplexEntityB entity;
+
+        public CyclicEntity(CyclicComplexEntityB entity)
+        {
+            this.entity = entity;
+        }
+        
+        @Override
+        public String getName()
+        {
+            return entity.getText();
+        }
+    }
+    
+    public static class ParametrizedEntity implements Entity
+    {
+        public static final Parameter<String> TEXT = new Parameter<>("ParametrizedEntity.TEXT");
+        public static final Parameter<Integer> NUMBER = new Parameter<>("ParametrizedEntity.NUMBER");
+        public static final Trigger<Integer> TRIGGABLE_NUMBER = new Trigger<>("ParametrizedEntity.T_NUMBER");
+        
+        @LoadsComponent(Entity.class)
+        public static void load(ComponentRegister cr, ParameterRegister pr)
+        {
+            String text = pr.getValue(TEXT);
+            Integer number = pr.getRequiredValue(NUMBER);
+            
+            ParametrizedEntity pe = cr.provide(new ParametrizedEntity(text, number), Entity.class);
+            pr.addListener(TRIGGABLE_NUMBER, (val) -> pe.value = val);
+        }
+        
+        private final String text;
+        private int value;
+
+        public ParametrizedEntity(String text, int value)
+        {
+            this.text = text;
+            this.value = value;
+        }
+        
+        @Override
+        public String getName()
+        {
+            return "name '" + text + " " + value + "'";
+        }
+    }
+    
+    public static class ProcessableEntity implements Entity, Taggable
+    {
+        @LoadsComponent({ Entity.class, Taggable.class })
+        public static void loadEntity(ComponentRegister cr)
+        {
+            cr.provide(new ProcessableEntity(), Entity.class, Taggable.class);
+        }
+        
+        @LoadsComponent
+        public static void loadValidation(Taggable t)
+        {
+            t.setName("prueba");
+        }
+        
+        private String name;
+
+        @Override
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+        
+        @Override
+        public String getName()
+        {
+            return name;
+        }
+        
+        @Processable
+        private void process()
+        {
+            if(name == null) 
+                throw new ModuleLoadException("null name");
+        }
+    }
+    
+    public static class ExtProcessableEntity extends ProcessableEntity
+    {
+        @LoadsComponent(Entity.class)
+        public static void load(ComponentRegister cr)
+        {
+            cr.provide(new ExtProcessableEntity(), Entity.class).setName("ext");
+        }
+        
+        @Processable
+        private void processExt(Retriever ret)
+        {
+            if(ret.contains(Entity.class))
+                setName(getName() + " processed");
+        }
+    }
+    
+    /*************** COMPLEX ENTITY ***************/
+    
+    public interface ComplexEntity
+    {
+        String getText();
+    }
+    
+    public static class SimpleComplexEntity implements ComplexEntity
+    {
+        @LoadsComponent(SimpleComplexEntity.class)
+        public static void load(ComponentRegister cr, Entity e)
+        {
+            cr.provide(new SimpleComplexEntity(e), SimpleComplexEntity.class);
+        }
+        
+        private final Entity entity;
+
+        public SimpleComplexEntity(Entity entity)
+        {
+            this.entity = entity;
+        }
+
+        @Override
+        public String getText()
+        {
+            return entity.getName();
+        }
+    }
+    
+    public static class CyclicComplexEntityA implements ComplexEntity
+    {
+        @LoadsComponent(CyclicComplexEntityA.class)
+        public static void load(ComponentRegister cr, Entity e)
+        {
+            cr.provide(new CyclicComplexEntityA(e));
+        }
+        
+        private final Entity entity;
+
+        public CyclicComplexEntityA(Entity entity)
+        {
+            this.entity = entity;
+        }
+
+        @Override
+        public String getText()
+        {
+            return entity.getName();
+        }        
+    }
+    
+    public static class CyclicComplexEntityB implements ComplexEntity
+    {
+        @LoadsComponent(CyclicComplexEntityB.class)
+        public static void load(ComponentRegister cr, CyclicComplexEntityA ceA)
+        {
+            cr.provide(new CyclicComplexEntityB(ceA));
+        }
+        
+        private final CyclicComplexEntityA entity;
+
+        public CyclicComplexEntityB(CyclicComplexEntityA entity)
+        {
+            this.entity = entity;
+        }
+
+        @Override
+        public String getText()
+        {
+            return entity.getText();
+        }
+    }
+    
+    /*************** SHARED ENTITY ***************/
+    
+    public static class SharedEntity
+    {
+        @LoadsComponent(SharedEntity.class)
+        public static void load(ComponentRegister cr)
+        {
+            cr.provide(new SharedEntity());
+        }
+    }
+    
+    public static class SelectorEntity
+    {
+        public static final SelectableValue<String> FIRST = new SelectableValue<>(SelectorEntity.class, (e) -> e.selector);
+        public static final SelectableValue<String> SECOND = new SelectableValue<>(SelectorEntity.class, (e) -> e.selector);
+        public static final AtomicInteger CALLS = new AtomicInteger();
+        public static final Resolvable<String> BOUND = Resolvable.boundTo(SelectorEntity.class, (e) -> e.selector.get(FIRST) + CALLS.incrementAndGet());
+        
+        @LoadsComponent(SelectorEntity.class)
+        public static void load(ComponentRegister cr)
+        {
+            cr.provide(new SelectorEntity());
+        }
+        
+        private final Selector<Resolvable, String> selector = new Selector<>(true);
+
+        public SelectorEntity()
+        {
+            selector.add(FIRST, "first");
+            selector.add(SECOND, "second");
+        }
+    }
+    
+    public static class CountingEntity
+    {
+        public static final List<Runnable> TASKS = new ArrayList<>();
+        public static final Trigger<Integer> ASYNC_NUMBER = new Trigger<>("CountingEntity.ASYNC_NUMBER", TASKS::add);
+        
+        @LoadsComponent(CountingEntity.class)
+        public static void load(ComponentRegister cr, ParameterRegister pr)
+        {
+            CountingEntity ce = cr.provide(new CountingEntity());
+            pr.addListener(ASYNC_NUMBER, (val) -> {
+                ce.last = val;
+                ce.count++;
+            });
+        }
+        
+        private int last;
+        private int count;
+    }
+    
+    public static class PrimitiveEntity
+    {
+        public static final IntParameter SIZE = new IntParameter("PrimitiveEntity.SIZE");
+        public static final DoubleTrigger RATE = new DoubleTrigger("PrimitiveEntity.RATE");
+        
+        @LoadsComponent(PrimitiveEntity.class)
+        public static void load(ComponentRegister cr, ParameterRegister pr)
+        {
+            PrimitiveEntity pe = cr.provide(new PrimitiveEntity(pr.getInt(SIZE)));
+            pr.addDoubleListener(RATE, (val) -> pe.rate = val);
+        }
+        
+        private final int size;
+        private double rate;
+
+        public PrimitiveEntity(int size)
+        {
+            this.size = size;
+        }
+    }
+    
+    public static class ConfigEntity
+    {
+        public static final Parameter<Integer> VALUE = new Parameter<>("ConfigEntity.VALUE");
+        
+        @LoadsComponent(ConfigEntity.class)
+        public static void load(ComponentRegister cr, ParameterRegister pr)
+        {
+            cr.provide(new ConfigEntity(pr.getValue(VALUE)));
+        }
+        
+        private final Integer value;
+
+        public ConfigEntity(Integer value)
+        {
+            this.value = value;
+        }
+    }
+    
+    public static class ConfiguredEntity
+    {
+        @LoadsComponent(ConfiguredEntity.class)
+        public static void load(ComponentRegister cr, ParameterRegister pr)
+        {
+            ConfiguredEntity ce = cr.provide(new ConfiguredEntity());
+            pr.addBoundHandler(Resolvable.boundTo(ConfigEntity.class, (c) -> c.value), (val) -> ce.bound = val);
+        }
+        
+        private Integer bound;
+        private Integer processed;
+        
+        @Processable
+        private void process(Retriever ret)
+        {
+            processed = ret.get(ConfigEntity.class).value;
+        }
+    }
+    
+    /*************** BIG ENTITY ***************/
+    
+    public static class BigEntity
+    {
+        @LoadsComponent(BigEntity.class)
+        public static void load(ComponentRegister cr, EntityA entityA, Entity entity, ComplexEntity complexEntity)
+        {
+            cr.provide(new BigEntity(entityA, entity, complexEntity));
+        }
+        
+        private final EntityA entityA;
+        private final Entity entity;
+        private final ComplexEntity complexEntity;
+
+        public BigEntity(EntityA entityA, Entity entity, ComplexEntity complexEntity)
+        {
+            this.entityA = entityA;
+            this.entity = entity;
+            this.complexEntity = complexEntity;
+        }
+        
+        public String getTextA()
+        {
+            return entityA.getName();
+        }
+        
+        public String getText()
+        {
+            return entity.getName();
+        }
+        
+        public String getComplexText()
+        {
+            return complexEntity.getText();
+        }
+    }
+    
+    /*************** TESTS ***************/
+    
+    @Rule public ExpectedException thrown = ExpectedException.none();
+    
+    @Before
+    public void prev()
+    {
+        System.out.println();
+    }
+    
+    @Test
+    public void basic()
+    {
+        Module mA = new ModuleLoader().
+            loadAll(EntityA.class, SimpleComplexEntity.class).
+            getModule();
+        
+        Module mB = new ModuleLoader().
+            loadAll(EntityB.class, SimpleComplexEntity.class).
+            getModule();
+        
+        assertEquals("Entity A", mA.getInstance(ComplexEntity.class).getText(), "entity A");
+        assertEquals("Entity B", mB.getInstance(ComplexEntity.class).getText(), "entity B");
+        
+        System.out.println(mA.getLoadLog());
+        System.out.println(mB.getLoadLog());
+    }
+    
+    @Test
+    public void unmetDependency()
+    {
+        thrown.expect(UnmetDependencyException.class);
+        
+        new ModuleLoader().
+            load(SimpleComplexEntity.class).
+            getInstance(ComplexEntity.class);
+    }
+    
+    @Test
+    public void missingComponent()
+    {
+        thrown.expect(MissingComponentException.class);
+        
+        new ModuleLoader().
+            load(EntityA.class).
+            getInstance(ComplexEntity.class);
+    }
+    
+    @Test
+    public void ambiguous()
+    {
+        thrown.expect(AmbiguousImplementationException.class);
+        
+        new ModuleLoader().
+            loadAll(SimpleComplexEntity.class, EntityA.class, EntityB.class).
+            getInstance(Entity.class);
+    }
+    
+    @Test
+    public void nonDeclaredProviding()
+    {
+        thrown.expect(NonDeclaredProvidingException.class);
+        
+        new ModuleLoader().
+            load(Loaders.class, "nonDeclaredProviding").
+            getModule();
+    }
+    
+    @Test
+    public void missingProviding()
+    {
+        thrown.expect(MissingProvidingException.class);
+        
+        new ModuleLoader().
+            load(Loaders.class, "missingProviding").
+            getInstance(Entity.class);
+    }
+    
+    @Test
+    public void selfCyclicDependency()
+    {
+        thrown.expect(CyclicDependencyException.class);
+        
+        new ModuleLoader().
+            loadAll(CyclicEntityA.class).
+            getInstance(CyclicEntityA.class);
+    }
+    
+    @Test
+    public void directCyclic()
+    {
+        thrown.expect(CyclicDependencyException.class);
+        
+        new ModuleLoader().
+            loadAll(CyclicExtEntityA.class, CyclicEntityB.class).
+            getInstance(CyclicEntityB.class);
+    }
+    
+    @Test
+    public void closeButNotCyclic()
+    {
+        Module m = new ModuleLoader().
+            loadAll(CyclicComplexEntityA.class, CyclicComplexEntityB.class, EntityB.class).
+            getModule();
+        
+        CyclicComplexEntityA entity = m.getInstance(CyclicComplexEntityA.class);
+        
+        assertEquals("Cyclic Entity", entity.getText(), "entity B");
+        System.out.println(m.getLoadLog());
+    }
+    
+    @Test
+    public void indirectCyclic()
+    {
+        thrown.expect(CyclicDependencyException.class);
+        
+        new ModuleLoader().
+            loadAll(CyclicComplexEntityA.class, CyclicComplexEntityB.class, CyclicEntity.class).
+            getInstance(CyclicComplexEntityA.class);
+    }
+    
+    @Test
+    public void bigEntity()
+    {
+        Module m = new ModuleLoader().
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class).
+            getModule();
+        
+        BigEntity be = m.getInstance(BigEntity.class);        
+        assertEquals("Big Entity", be.getText(), "entity A");
+        assertEquals("Big Entity", be.getTextA(), "entity A");
+        assertEquals("Big Entity", be.getComplexText(), "entity A");
+        
+        System.out.println(m.getLoadLog());
+    }
+    
+    @Test
+    public void bigEntityMissing()
+    {
+       thrown.expect(UnmetDependencyException.class);
+        
+        new ModuleLoader().
+            loadAll(BigEntity.class, EntityB.class, SimpleComplexEntity.class).
+            getInstance(BigEntity.class);
+    }
+    
+    @Test
+    public void bigEntityAmbiguous()
+    {
+        thrown.expect(AmbiguousImplementationException.class);
+        
+        new ModuleLoader().
+            loadAll(BigEntity.class, EntityA.class, EntityB.class, SimpleComplexEntity.class).
+            getInstance(BigEntity.class);
+    }
+    
+    @Test
+    public void parameters()
+    {
+        ModuleLoader loader = new ModuleLoader().
+            load(ParametrizedEntity.class).
+            setParameter(ParametrizedEntity.TEXT, "hola").
+            setParameter(ParametrizedEntity.NUMBER, 6);
+        
+        Entity entity1 = loader.getInstance(Entity.class);
+        assertEquals("Parametrized valued entity 1", entity1.getName(), "name 'hola 6'");
+        
+        Entity entity2 = loader.clearParameter(ParametrizedEntity.TEXT).getInstance(Entity.class);
+        assertEquals("Parametrized valued entity 2", entity2.getName(), "name 'null 6'");
+        
+        Module m = loader.getModule();
+        m.setParameter(ParametrizedEntity.TRIGGABLE_NUMBER, 2);
+        assertEquals("Parametrized valued entity 2", m.getInstance(Entity.class).getName(), "name 'null 2'");
+    }
+    
+    @Test
+    public void missingParameter()
+    {
+        thrown.expect(MissingParameterException.class);
+        
+        new ModuleLoader().
+            load(ParametrizedEntity.class).
+            setParameter(ParametrizedEntity.TEXT, "hola").
+            getModule();
+    }
+    
+    @Test
+    public void validation()
+    {
+        Entity e = new ModuleLoader().
+            load(ProcessableEntity.class).
+            getInstance(Entity.class);
+        
+        assertEquals("Validable entity", e.getName(), "prueba");
+    }
+    
+    @Test
+    public void validationError()
+    {
+        thrown.expect(ModuleLoadException.class);
+        
+        new ModuleLoader().
+            load(ProcessableEntity.class, "loadEntity").
+            getInstance(Entity.class);
+    }
+    
+    @Test
+    public void reusedPlan()
+    {
+        ModuleLoader loader = new ModuleLoader().
+            loadAll(EntityA.class, SimpleComplexEntity.class);
+        
+        Module m1 = loader.getModule();
+        Module m2 = loader.getModule();
+        
+        assertNotSame("Different instances", m1.getInstance(ComplexEntity.class), m2.getInstance(ComplexEntity.class));
+        assertEquals("Same load log", m1.getLoadLog(), m2.getLoadLog());
+        
+        Module m3 = loader.load(BigEntity.class).getModule();
+        assertEquals("Plan rebuilt after load", m3.getInstance(BigEntity.class).getComplexText(), "entity A");
+    }
+    
+    @Test
+    public void reflectionStrategy()
+    {
+        Module m = new ModuleLoader().
+            setInvocationStrategy(InvocationStrategy.REFLECTION).
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class).
+            getModule();
+        
+        assertEquals("Reflective loaders", m.getInstance(BigEntity.class).getComplexText(), "entity A");
+        
+        thrown.expect(ModuleLoadException.class);
+        
+        new ModuleLoader().
+            setInvocationStrategy(InvocationStrategy.REFLECTION).
+            load(ProcessableEntity.class, "loadEntity").
+            getModule();
+    }
+    
+    @Test
+    public void parallel()
+    {
+        ModuleLoader loader = new ModuleLoader().
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class);
+        
+        for(int i = 0; i < 20; i++)
+        {
+            BigEntity be = loader.getModule(ForkJoinPool.commonPool()).getInstance(BigEntity.class);
+            assertEquals("Parallel Big Entity", be.getComplexText(), "entity A");
+        }
+    }
+    
+    @Test
+    public void parallelCyclic()
+    {
+        thrown.expect(CyclicDependencyException.class);
+        
+        new ModuleLoader().
+            loadAll(CyclicComplexEntityA.class, CyclicComplexEntityB.class, CyclicEntity.class).
+            getModule(ForkJoinPool.commonPool());
+    }
+    
+    @Test
+    public void parallelLoaderError()
+    {
+        thrown.expect(MissingParameterException.class);
+        
+        new ModuleLoader().
+            loadAll(ParametrizedEntity.class, SimpleComplexEntity.class).
+            getModule(ForkJoinPool.commonPool());
+    }
+    
+    @Test
+    public void cachedHierarchy()
+    {
+        Class[] hierarchy = ModuleState.getHierarchy(CyclicExtEntityA.class);
+        
+        assertSame("Cached hierarchy", hierarchy, ModuleState.getHierarchy(CyclicExtEntityA.class));
+        assertArrayEquals("Hierarchy order", hierarchy, new Class[] { CyclicExtEntityA.class, CyclicEntityA.class, Entity.class });
+    }
+    
+    @Test
+    public void inheritedProcessable()
+    {
+        Entity e = new ModuleLoader().
+            load(ExtProcessableEntity.class).
+            getInstance(Entity.class);
+        
+        assertEquals("Inherited processors", e.getName(), "ext processed");
+    }
+    
+    @Test
+    public void fork()
+    {
+        Module m = new ModuleLoader().
+            loadAll(ParametrizedEntity.class, SimpleComplexEntity.class, SharedEntity.class).
+            setParameter(ParametrizedEntity.TEXT, "hola").
+            setParameter(ParametrizedEntity.NUMBER, 6).
+            getModule();
+        
+        Map<Parameter, Object> overrides = new HashMap<>();
+        overrides.put(ParametrizedEntity.NUMBER, 7);
+        Module f = m.fork(overrides);
+        
+        assertEquals("Parent entity", m.getInstance(ComplexEntity.class).getText(), "name 'hola 6'");
+        assertEquals("Forked entity", f.getInstance(ComplexEntity.class).getText(), "name 'hola 7'");
+        assertSame("Shared entity", m.getInstance(SharedEntity.class), f.getInstance(SharedEntity.class));
+        
+        f.setParameter(ParametrizedEntity.TRIGGABLE_NUMBER, 2);
+        assertEquals("Forked trigger", f.getInstance(Entity.class).getName(), "name 'hola 2'");
+        assertEquals("Parent not triggered", m.getInstance(Entity.class).getName(), "name 'hola 6'");
+        
+        Map<Parameter, Object> unrelated = new HashMap<>();
+        unrelated.put(new Parameter<String>(), "x");
+        Module g = m.fork(unrelated);
+        
+        assertNotSame("Listener owner executed again", g.getInstance(Entity.class), m.getInstance(Entity.class));
+        assertSame("Shared without listeners", g.getInstance(SharedEntity.class), m.getInstance(SharedEntity.class));
+        
+        g.setParameter(ParametrizedEntity.TRIGGABLE_NUMBER, 3);
+        assertEquals("Unrelated fork trigger", g.getInstance(Entity.class).getName(), "name 'hola 3'");
+        assertEquals("Parent still not triggered", m.getInstance(Entity.class).getName(), "name 'hola 6'");
+    }
+    
+    @Test
+    public void forkRetrieved()
+    {
+        Module m = new ModuleLoader().
+            loadAll(ConfigEntity.class, ConfiguredEntity.class).
+            setParameter(ConfigEntity.VALUE, 1).
+            getModule();
+        
+        Map<Parameter, Object> overrides = new HashMap<>();
+        overrides.put(ConfigEntity.VALUE, 5);
+        Module f = m.fork(overrides);
+        ConfiguredEntity parent = m.getInstance(ConfiguredEntity.class);
+        ConfiguredEntity forked = f.getInstance(ConfiguredEntity.class);
+        
+        assertNotSame("Forked entity", forked, parent);
+        assertEquals("Forked bound handler", forked.bound, (Integer)5);
+        assertEquals("Forked processor", forked.processed, (Integer)5);
+        assertEquals("Parent bound handler", parent.bound, (Integer)1);
+        assertEquals("Parent processor", parent.processed, (Integer)1);
+    }
+    
+    @Test
+    public void frozenAmbiguous()
+    {
+        Module m = new ModuleLoader().
+            loadAll(EntityA.class, EntityB.class).
+            getModule();
+        
+        assertTrue("Ambiguous type is present", m.hasInstance(Entity.class));
+        assertFalse("Missing type is absent", m.hasInstance(ComplexEntity.class));
+        assertEquals("Unique type", m.getInstance(EntityA.class).getName(), "entity A");
+        
+        thrown.expect(AmbiguousImplementationException.class);
+        m.getInstance(Entity.class);
+    }
+    
+    @Test
+    public void generatedIndexes() throws ReflectiveOperationException
+    {
+        assertEquals("Index of the top-level type", LoaderIndex.getIndexName(BigEntity.class), LoaderTests.class.getName() + LoaderIndex.SUFFIX);
+        
+        LoaderIndex index = (LoaderIndex)Class.forName(LoaderIndex.getIndexName(BigEntity.class)).getDeclaredConstructor().newInstance();
+        assertEquals("Index version", index.getVersion(), LoaderIndex.VERSION);
+        
+        for(Class type : new Class[] { BigEntity.class, ProcessableEntity.class, ParametrizedEntity.class, PrimitiveEntity.class })
+            assertTrue("Indexed " + type.getSimpleName(), index.describe(type, (id, methodName, parameterTypes, provided) -> assertTrue("Direct invocation", id >= 0)));
+        
+        assertFalse("Not indexed", index.describe(Entity.class, (id, methodName, parameterTypes, provided) -> fail("Entity has no loaders")));
+        
+        Module indexed = new ModuleLoader().
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class).
+            getModule();
+        
+        Module scanned = new ModuleLoader().
+            useLoaderIndexes(false).
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class).
+            getModule();
+        
+        assertEquals("Same loaders", indexed.getLoadLog().length(), scanned.getLoadLog().length());
+        assertEquals("Indexed Big Entity", indexed.getInstance(BigEntity.class).getComplexText(), "entity A");
+        assertEquals("Scanned Big Entity", scanned.getInstance(BigEntity.class).getComplexText(), "entity A");
+    }
+    
+    @Test
+    public void loadListener()
+    {
+        List<String> events = new ArrayList<>();
+        LoadListener listener = new LoadListener()
+        {
+            @Override
+            public void loaderStarted(Method loader, Class requested)
+            {
+                events.add("start " + loader.getName());
+            }
+
+            @Override
+            public void loaderFinished(Method loader, Class requested, long nanos)
+            {
+                events.add("end " + loader.getName());
+            }
+
+            @Override
+            public void componentProvided(Method loader, Class type, Object instance)
+            {
+                events.add("provided " + type.getSimpleName());
+            }
+
+            @Override
+            public void processorsExecuted(Object component, long nanos)
+            {
+                events.add("processed " + component.getClass().getSimpleName());
+            }
+
+            @Override
+            public void postProcessorExecuted(PostProcessor pp, long nanos)
+            {
+                events.add("post-processed");
+            }
+        };
+        
+        Module m = new ModuleLoader().
+            addLoadListeners(listener).
+            load(ProcessableEntity.class).
+            addPostProcessors((ret, pr) -> {}).
+            getModule();
+        
+        assertArrayEquals("Listened events", events.subList(0, 7).toArray(), new Object[] {
+            "start loadEntity", "provided Entity", "provided Taggable", "end loadEntity",
+            "start loadValidation", "end loadValidation", "post-processed"
+        });
+        assertEquals("Processed after post-processors", events.get(7), "processed ProcessableEntity");
+        assertEquals("Loaded loaders", m.getLoadedLoaders().length, 2);
+    }
+    
+    @Test
+    public void lazyModule()
+    {
+        Module m = new ModuleLoader().
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class, SharedEntity.class).
+            getLazyModule();
+        
+        assertEquals("Nothing loaded", m.getLoadedLoaders().length, 0);
+        assertEquals("Lazy complex entity", m.getInstance(SimpleComplexEntity.class).getText(), "entity A");
+        assertEquals("Only required loaders", m.getLoadedLoaders().length, 2);
+        assertTrue("Lazy shared entity", m.hasInstance(SharedEntity.class));
+        assertSame("Memoized component", m.getInstance(SharedEntity.class), m.getInstance(SharedEntity.class));
+        assertEquals("Loaded on demand", m.getLoadedLoaders().length, 3);
+    }
+    
+    @Test
+    public void childModule()
+    {
+        Module parent = new ModuleLoader().
+            loadAll(EntityA.class, SharedEntity.class).
+            getModule();
+        
+        Module child = new ModuleLoader().
+            loadAll(BigEntity.class, SimpleComplexEntity.class, SharedEntity.class).
+            getChildModule(parent);
+        
+        assertEquals("Child Big Entity", child.getInstance(BigEntity.class).getComplexText(), "entity A");
+        assertSame("Parent component", child.getInstance(EntityA.class), parent.getInstance(EntityA.class));
+        assertSame("Parent loader skipped", child.getInstance(SharedEntity.class), parent.getInstance(SharedEntity.class));
+        assertEquals("Run-scoped loaders", child.getLoadedLoaders().length, 2);
+        assertFalse("Parent unchanged", parent.hasInstance(BigEntity.class));
+        
+        Module configured = new ModuleLoader().
+            load(ConfigEntity.class).
+            setParameter(ConfigEntity.VALUE, 1).
+            getModule();
+        
+        Module pinned = new ModuleLoader().
+            load(SharedEntity.class).
+            getChildModule(configured);
+        
+        configured.update(ConfigEntity.VALUE, 5);
+        assertEquals("Updated parent", configured.getInstance(ConfigEntity.class).value, (Integer)5);
+        assertEquals("Child pinned to the parent state", pinned.getInstance(ConfigEntity.class).value, (Integer)1);
+        
+        thrown.expect(UnmetDependencyException.class);
+        
+        new ModuleLoader().
+            load(SimpleComplexEntity.class).
+            getChildModule(new ModuleLoader().load(SharedEntity.class).getModule());
+    }
+    
+    @Test
+    public void batchModules()
+    {
+        ModuleLoader loader = new ModuleLoader().
+            loadAll(ParametrizedEntity.class, SimpleComplexEntity.class).
+            setParameter(ParametrizedEntity.TEXT, "hola");
+        
+        List<Map<Parameter, Object>> parameterSets = new ArrayList<>();
+        
+        for(int i = 0; i < 8; i++)
+        {
+            Map<Parameter, Object> params = new HashMap<>();
+            params.put(ParametrizedEntity.NUMBER, i);
+            parameterSets.add(params);
+        }
+        
+        parameterSets.get(0).put(ParametrizedEntity.TEXT, null);
+        List<Module> modules = loader.getModules(parameterSets);
+        
+        assertEquals("Removed parameter", modules.get(0).getInstance(ComplexEntity.class).getText(), "name 'null 0'");
+        
+        for(int i = 1; i < modules.size(); i++)
+            assertEquals("Batch module " + i, modules.get(i).getInstance(ComplexEntity.class).getText(), "name 'hola " + i + "'");
+        
+        assertEquals("Streamed modules", loader.getModules(parameterSets.stream().skip(1)).count(), 7);
+        
+        Stream<Module> stream = loader.getModules(parameterSets.stream().skip(1).limit(1));
+        loader.setParameter(ParametrizedEntity.TEXT, "chao");
+        assertEquals("Parameters taken at call", stream.findFirst().get().getInstance(ComplexEntity.class).getText(), "name 'hola 1'");
+    }
+    
+    @Test
+    public void triggerDispatch()
+    {
+        Module m = new ModuleLoader().
+            load(ParametrizedEntity.class).
+            setParameter(ParametrizedEntity.NUMBER, 6).
+            getModule();
+        
+        m.setParameter(ParametrizedEntity.TRIGGABLE_NUMBER, null);
+        assertEquals("Null trigger ignored", m.getInstance(Entity.class).getName(), "name 'null 6'");
+        
+        IntStream.range(0, 1000).parallel().forEach((i) -> m.setParameter(ParametrizedEntity.TRIGGABLE_NUMBER, 3));
+        assertEquals("Concurrent triggers", m.getInstance(Entity.class).getName(), "name 'null 3'");
+        
+        thrown.expect(ModuleException.class);
+        m.setParameter(new Trigger<Integer>(), 1);
+    }
+    
+    @Test
+    public void asyncTrigger()
+    {
+        Module m = new ModuleLoader().
+            load(CountingEntity.class).
+            getModule();
+        
+        CountingEntity ce = m.getInstance(CountingEntity.class);
+        CountingEntity.TASKS.clear();
+        
+        for(int i = 1; i <= 100; i++)
+            m.setParameter(CountingEntity.ASYNC_NUMBER, i);
+        
+        assertEquals("Single pending dispatch", CountingEntity.TASKS.size(), 1);
+        assertEquals("Not dispatched yet", ce.count, 0);
+        
+        CountingEntity.TASKS.remove(0).run();
+        assertEquals("Latest value", ce.last, 100);
+        assertEquals("Coalesced values", ce.count, 1);
+        
+        m.setParameter(CountingEntity.ASYNC_NUMBER, 5);
+        CountingEntity.TASKS.remove(0).run();
+        assertEquals("Rescheduled value", ce.last, 5);
+        assertTrue("No more dispatches", CountingEntity.TASKS.isEmpty());
+    }
+    
+    @Test
+    public void indexedParameters()
+    {
+        Parameter<Integer> first = new Parameter<>();
+        Parameter<Integer> second = new Parameter<>();
+        assertEquals("Dense ids", second.getId(), first.getId() + 1);
+        
+        ParameterValues values = ParameterValues.EMPTY.with(first, 1);
+        ParameterValues copy = values.with(second, 2);
+        
+        assertFalse("Copy on write", values.isSet(second));
+        assertEquals("Copied value", copy.get(first), 1);
+        assertSame("Unchanged value", copy.with(second, 2), copy);
+        
+        Map<Parameter, Object> overrides = new HashMap<>();
+        overrides.put(first, null);
+        assertFalse("Cleared value", copy.withAll(overrides).isSet(first));
+    }
+    
+    @Test
+    public void primitiveParameters()
+    {
+        Module m = new ModuleLoader().
+            load(PrimitiveEntity.class).
+            setParameter(PrimitiveEntity.SIZE, 10).
+            getModule();
+        
+        PrimitiveEntity pe = m.getInstance(PrimitiveEntity.class);
+        assertEquals("Int parameter", pe.size, 10);
+        
+        m.setParameter(PrimitiveEntity.RATE, 0.5);
+        assertEquals("Double trigger", pe.rate, 0.5, 0);
+        
+        m.setParameter((Trigger<Double>)PrimitiveEntity.RATE, Double.valueOf(0.25));
+        assertEquals("Boxed double trigger", pe.rate, 0.25, 0);
+        
+        thrown.expect(MissingParameterException.class);
+        new ModuleLoader().load(PrimitiveEntity.class).getModule();
+    }
+    
+    @Test
+    public void concurrentModule() throws Exception
+    {
+        Module m = new ModuleLoader().
+            loadAll(ParametrizedEntity.class, SimpleComplexEntity.class, PrimitiveEntity.class).
+            setParameter(ParametrizedEntity.NUMBER, 6).
+            setParameter(PrimitiveEntity.SIZE, 1).
+            getModule();
+        
+        ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try
+        {
+            pool.submit(() -> IntStream.range(0, 10000).parallel().forEach((i) -> {
+                if(i % 2 == 0)
+                {
+                    m.setParameter(PrimitiveEntity.RATE, 1.0);
+                }
+                else
+                {
+                    assertNotNull("Concurrent lookup", m.getInstance(ComplexEntity.class));
+                    assertTrue("Concurrent check", m.hasInstance(Entity.class));
+                }
+            })).get();
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+        assertEquals("Concurrent trigger", m.getInstance(PrimitiveEntity.class).rate, 1.0, 0);
+    }
+    
+    @Test
+    public void update()
+    {
+        Parameter<String> extra = new Parameter<>();
+        int[] runs = new int[1];
+        
+        Module m = new ModuleLoader().
+            loadAll(ParametrizedEntity.class, SimpleComplexEntity.class, SharedEntity.class).
+            setParameter(ParametrizedEntity.NUMBER, 6).
+            addPostProcessors((ret, pr) -> {
+                pr.getValue(extra);
+                ret.get(ComplexEntity.class);
+                runs[0]++;
+            }).
+            getModule();
+        
+        SharedEntity shared = m.getInstance(SharedEntity.class);
+        Method[] loaded = m.getLoadedLoaders();
+        
+        assertSame("Updated in place", m.update(ParametrizedEntity.NUMBER, 7), m);
+        assertEquals("Updated entity", m.getInstance(ComplexEntity.class).getText(), "name 'null 7'");
+        assertSame("Kept entity", m.getInstance(SharedEntity.class), shared);
+        assertEquals("Post-processed after reload", runs[0], 2);
+        
+        m.update(extra, "x");
+        assertEquals("Post-processor reading the parameter", runs[0], 3);
+        assertArrayEquals("Kept loaders", m.getLoadedLoaders(), loaded);
+        
+        m.update(new Parameter<String>(), "y");
+        assertEquals("Unaffected post-processor", runs[0], 3);
+        
+        m.setParameter(ParametrizedEntity.TRIGGABLE_NUMBER, 2);
+        assertEquals("Replayed trigger", m.getInstance(Entity.class).getName(), "name 'null 2'");
+    }
+    
+    @Test
+    public void updateRetrieved()
+    {
+        Integer[] post = new Integer[1];
+        
+        Module m = new ModuleLoader().
+            loadAll(ConfigEntity.class, ConfiguredEntity.class, SharedEntity.class).
+            setParameter(ConfigEntity.VALUE, 1).
+            addPostProcessors((ret, pr) -> post[0] = ret.get(ConfigEntity.class).value).
+            getModule();
+        
+        SharedEntity shared = m.getInstance(SharedEntity.class);
+        m.update(ConfigEntity.VALUE, 2);
+        ConfiguredEntity ce = m.getInstance(ConfiguredEntity.class);
+        
+        assertEquals("Rebound handler", ce.bound, (Integer)2);
+        assertEquals("Reprocessed component", ce.processed, (Integer)2);
+        assertEquals("Post-processor retrieving a rebuilt type", post[0], (Integer)2);
+        assertSame("Kept entity", m.getInstance(SharedEntity.class), shared);
+    }
+    
+    @Test
+    public void sparseIds()
+    {
+        for(int i = 0; i < 1000; i++)
+            new Parameter<>();
+        
+        Parameter<Integer> late = new Parameter<>();
+        ParameterValues values = ParameterValues.EMPTY.
+            with(late, 1).
+            with(ParametrizedEntity.NUMBER, 2);
+        
+        assertEquals("Late parameter", values.get(late), 1);
+        assertEquals("Early parameter", values.get(ParametrizedEntity.NUMBER), 2);
+        assertTrue("Sized by the used ids", values.capacity() < 64);
+        assertNull("Cleared parameter", values.with(late, null).get(late));
+        
+        IdTable dense = IdTable.EMPTY.with(new int[] { 3, 1, 3 }, new Object[] { "a", "b", "c" }, 3);
+        assertEquals("Dense value", dense.get(1), "b");
+        assertEquals("Later value", dense.get(3), "c");
+        assertEquals("Dense capacity", dense.capacity(), 4);
+        
+        IdTable sparse = dense.with(1_000_000, "d").with(1, null);
+        assertEquals("Sparse value", sparse.get(1_000_000), "d");
+        assertEquals("Kept value", sparse.get(3), "c");
+        assertNull("Removed value", sparse.get(1));
+        assertNull("Missing value", sparse.get(2));
+        assertEquals("Sparse capacity", sparse.capacity(), 2);
+    }
+    
+    @Test
+    public void defaultPrimitiveListeners()
+    {
+        List<Consumer> listeners = new ArrayList<>();
+        
+        ParameterRegister pr = new ParameterRegister()
+        {
+            @Override
+            public <T> void addListener(Trigger<T> param, Consumer<T> listener)
+            {
+                listeners.add(listener);
+            }
+
+            @Override
+            public <T> void addBoundHandler(Resolvable<T> value, Consumer<T> handler)
+            {
+            }
+
+            @Override
+            public <T> T getValue(Parameter<T> param)
+            {
+                return null;
+            }
+
+            @Override
+            public <T> T getRequiredValue(Parameter<T> param)
+            {
+                return null;
+            }
+
+            @Override
+            public boolean isValueSet(Parameter param)
+            {
+                return false;
+            }
+        };
+        
+        double[] rate = new double[1];
+        pr.addDoubleListener(PrimitiveEntity.RATE, (val) -> rate[0] = val);
+        listeners.get(0).accept(0.5);
+        
+        assertEquals("Boxed listener", listeners.size(), 1);
+        assertEquals("Unboxed value", rate[0], 0.5, 0);
+    }
+    
+    @Test
+    public void discover() throws IOException
+    {
+        Path dir = Files.createTempDirectory("optefx-loader");
+        Path resource = dir.resolve(LoaderIndex.RESOURCE);
+        Files.createDirectories(resource.getParent());
+        Files.write(resource, Arrays.asList("# test loaders", BigEntity.class.getName(), EntityA.class.getName(), SimpleComplexEntity.class.getName()));
+        
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader())
+        {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException
+            {
+                return Collections.enumeration(Arrays.asList(resource.toUri().toURL()));
+            }
+        };
+        
+        try
+        {
+            ModuleLoader loader = new ModuleLoader().discover(classLoader);
+            assertEquals("Discovered Big Entity", loader.getInstance(BigEntity.class).getComplexText(), "entity A");
+            
+            Files.write(resource, Arrays.asList("optefx.loader.MissingLoaders"));
+            
+            try
+            {
+                new ModuleLoader().discover(classLoader);
+                fail("Missing type");
+            }
+            catch(ModuleLoadException ex)
+            {
+            }
+        }
+        finally
+        {
+            Files.delete(resource);
+            Files.delete(resource.getParent());
+            Files.delete(resource.getParent().getParent());
+            Files.delete(dir);
+        }
+    }
+    
+    @Test
+    public void validate()
+    {
+        assertTrue("Valid graph", new ModuleLoader().loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class).validate().isValid());
+        
+        ValidationReport report = new ModuleLoader().
+            loadAll(CyclicComplexEntityA.class, CyclicComplexEntityB.class, CyclicEntity.class, BigEntity.class, EntityB.class).
+            validate();
+        
+        assertEquals("Cycles", report.getCycles().size(), 1);
+        assertEquals("Indirect cycle", report.getCycles().get(0).size(), 3);
+        
+        for(Method loader : report.getCycles().get(0))
+            assertTrue("Cycle member " + loader, Arrays.asList(CyclicComplexEntityA.class, CyclicComplexEntityB.class, CyclicEntity.class).contains(loader.getDeclaringClass()));
+        
+        String text = report.toString();
+        assertTrue("Invalid text", text.startsWith("Invalid loader graph:"));
+        assertTrue("Cycle text", text.contains("> Cyclic loader dependency between: "));
+        assertTrue("Unmet text", text.contains("> Unmet dependencies [" + EntityA.class + "]"));
+        assertTrue("Ambiguous text", text.contains("> Ambiguous providers of (" + Entity.class + "): "));
+        assertEquals("Unmet", report.getUnmetDependencies().keySet().iterator().next().getDeclaringClass(), BigEntity.class);
+        assertEquals("Unmet types", report.getUnmetDependencies().values().iterator().next(), Collections.singleton(EntityA.class));
+        assertEquals("Ambiguous", report.getAmbiguousProviders().get(Entity.class).size(), 2);
+        assertEquals("Self cycle", new ModuleLoader().load(CyclicEntityA.class).validate().getCycles().get(0).size(), 1);
+    }
+    
+    @Test
+    public void cyclicStack()
+    {
+        try
+        {
+            new ModuleLoader().
+                loadAll(CyclicComplexEntityA.class, CyclicComplexEntityB.class, CyclicEntity.class).
+                getModule();
+            
+            fail("Cyclic dependency");
+        }
+        catch(CyclicDependencyException ex)
+        {
+            String message = ex.getMessage();
+            
+            assertTrue("Stack", message.contains("Stack:"));
+            assertTrue("Stack of A", message.contains(CyclicComplexEntityA.class.getName() + ".load("));
+            assertTrue("Stack of B", message.contains(CyclicComplexEntityB.class.getName() + ".load("));
+            assertTrue("Stack of entity", message.contains(CyclicEntity.class.getName() + ".load("));
+        }
+    }
+    
+    @Test
+    public void deepChain() throws Exception
+    {
+        int depth = 1500;
+        Path dir = Files.createTempDirectory("optefx-loader");
+        StringBuilder sb = new StringBuilder("package deep; import optefx.loader.*; public class Chain {");
+        sb.append(" public static class N0 { @LoadsComponent(N0.class) static void load(ComponentRegister cr) { cr.provide(new N0()); } }");
+        
+        for(int i = 1; i < depth; i++)
+            sb.append(" public static class N").append(i).append(" { @LoadsComponent(N").append(i).append(".class) static void load(ComponentRegister cr, N").
+                append(i - 1).append(" p) { cr.provide(new N").append(i).append("()); } }");
+        
+        Path source = dir.resolve("deep/Chain.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, sb.append(" }").toString().getBytes(StandardCharsets.UTF_8));
+        
+        String classPath = Paths.get(ModuleLoader.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        int res = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-proc:none", "-classpath", classPath, "-d", dir.toString(), source.toString());
+        assertEquals("Compiled chain", res, 0);
+        
+        try(URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, getClass().getClassLoader()))
+        {
+            Class[] loaders = new Class[depth];
+            
+            for(int i = 0; i < depth; i++)
+                loaders[i] = classLoader.loadClass("deep.Chain$N" + i);
+            
+            Object[] last = new Object[1];
+            Throwable[] error = new Throwable[1];
+            
+            Thread thread = new Thread(null, () -> {
+                try
+                {
+                    ModuleLoader loader = new ModuleLoader().loadAll(loaders);
+                    assertTrue("Valid chain", loader.validate().isValid());
+                    last[0] = loader.getModule().getInstance(loaders[depth - 1]);
+                }
+                catch(Throwable ex)
+                {
+                    error[0] = ex;
+                }
+            }, "deep-chain", 256 * 1024);
+            
+            thread.start();
+            thread.join();
+            
+            assertNull("No error in a small stack", error[0]);
+            assertTrue("Last of the chain", loaders[depth - 1].isInstance(last[0]));
+        }
+    }
+    
+    @Test
+    public void graphStats()
+    {
+        GraphStats stats = new ModuleLoader().
+            loadAll(BigEntity.class, EntityA.class, SimpleComplexEntity.class).
+            graphStats();
+        
+        assertEquals("Nodes", stats.getNodeCount(), 3);
+        assertEquals("Types", stats.getTypeCount(), 5);
+        assertEquals("Edges", stats.getEdgeCount(), 4);
+        assertTrue("Bytes", stats.getEstimatedBytes() > 0);
+        assertEquals("Text", stats.toString(), "3 loaders, 5 types, 4 edges, " + stats.getEstimatedBytes() + " bytes");
+    }
+    
+    @Test
+    public void resolveCached()
+    {
+        Module m = new ModuleLoader().
+            load(SelectorEntity.class).
+            getModule();
+        
+        assertEquals("First", m.resolve(SelectorEntity.FIRST), "first");
+        assertEquals("Second", m.resolve(SelectorEntity.SECOND), "second");
+        assertSame("Cached selection", m.resolve(SelectorEntity.FIRST), m.resolve(SelectorEntity.FIRST));
+        
+        SelectorEntity.CALLS.set(0);
+        assertEquals("Bound", m.resolve(SelectorEntity.BOUND), "first1");
+        assertEquals("Cached bound", m.resolve(SelectorEntity.BOUND), "first1");
+        
+        m.invalidate(SelectorEntity.BOUND);
+        assertEquals("Invalidated bound", m.resolve(SelectorEntity.BOUND), "first2");
+        
+        m.invalidateResolved();
+        assertEquals("Invalidated all", m.resolve(SelectorEntity.BOUND), "first3");
+        assertEquals("First after invalidation", m.resolve(SelectorEntity.FIRST), "first");
+    }
+    
+    @Test
+    public void selectorSlots()
+    {
+        class Other {}
+        class Bounded {}
+        
+        for(int i = 0; i < 100; i++)
+            new SelectableValue<String>(Other.class, (o) -> null);
+        
+        SelectableValue<String> first = new SelectableValue<>(Bounded.class, (b) -> null);
+        SelectableValue<String> second = new SelectableValue<>(Bounded.class, (b) -> null);
+        SelectableValue<String> other = new SelectableValue<>(Other.class, (o) -> null);
+        assertEquals("First slot", first.getSlot(), 0);
+        assertEquals("Second slot", second.getSlot(), 1);
+        assertEquals("Other slot", other.getSlot(), 100);
+        
+        Selector<SelectableValue, String> selector = new Selector<>(true);
+        selector.add(first, "first");
+        selector.add(second, "second");
+        selector.add(other, "other");
+        assertEquals("First", selector.get(first), "first");
+        assertEquals("Second", selector.get(second), "second");
+        assertEquals("Other", selector.get(other), "other");
+        assertEquals("Size", selector.size(), 3);
+        
+        class Clashing {}
+        SelectableValue<String> clash = new SelectableValue<>(Clashing.class, (c) -> null);
+        assertEquals("Clash slot", clash.getSlot(), 0);
+        selector.add(clash, "clash");
+        assertEquals("Clash", selector.get(clash), "clash");
+        assertEquals("First after clash", selector.get(first), "first");
+        
+        assertEquals("Removed", selector.remove(first), "first");
+        assertFalse("Contains removed", selector.contains(first));
+        
+        try
+        {
+            selector.get(first);
+            fail("Removed key");
+        }
+        catch(NoSuchElementException ex)
+        {
+        }
+        
+        assertEquals("Keys", selector.getKeys(), new HashSet<>(Arrays.asList(second, other, clash)));
+    }
+}
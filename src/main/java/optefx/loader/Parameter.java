@@ -1,18 +0,0 @@
-
-package optefx.loader;
-
-/**
- *
- * @author Enrique Urra C.
- */
-public class Parameter<T> extends TaggedEntity
-{
-    public Parameter()
-    {
-    }
-
-    public Parameter(String name)
-    {
-        super(name);
-    }
-}
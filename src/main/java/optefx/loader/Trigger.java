@@ -1,18 +0,0 @@
-
-package optefx.loader;
-
-/**
- *
- * @author Enrique Urra C.
- */
-public class Trigger<T> extends TaggedEntity
-{
-    public Trigger()
-    {
-    }
-
-    public Trigger(String name)
-    {
-        super(name);
-    }
-}